@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -33,6 +34,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
     }
 
+    /** Parâmetros inválidos (ex.: sort desconhecido, cursor adulterado). */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage() != null ? e.getMessage() : "Requisição inválida"));
+    }
+
+    /** Edição sobre dados antigos (ex.: produto com estoque alterado por uma compra depois de lido pelo admin). */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLock(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "message", "O registro foi alterado por outra operação. Recarregue e tente novamente.",
+                        "code", "STALE_VERSION"));
+    }
+
     @ExceptionHandler(MPApiException.class)
     public ResponseEntity<Map<String, String>> handleMPApiException(MPApiException e) {
         String detail = e.getMessage();
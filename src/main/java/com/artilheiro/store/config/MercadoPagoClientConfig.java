@@ -0,0 +1,140 @@
+package com.artilheiro.store.config;
+
+import com.mercadopago.MercadoPagoConfig;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.preference.PreferenceClient;
+import com.mercadopago.net.MPDefaultHttpClient;
+import com.mercadopago.net.MPHttpClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.client.HttpClient;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clientes do SDK do Mercado Pago ({@link PaymentClient}, {@link PreferenceClient}) como beans, todos sobre um único
+ * pool de conexões HTTP (Apache HttpClient, o mesmo que o SDK usa por padrão).
+ * <p>
+ * As conexões com api.mercadopago.com ficam abertas (keep-alive) e são reaproveitadas entre chamadas, evitando um
+ * handshake TCP + TLS por requisição; conexões novas retomam a sessão TLS em cache. O pool é limitado a
+ * {@code app.mercadopago.http.max-connections}; chamadas além disso esperam uma conexão livre até o
+ * connection-request-timeout de cada operação (ver {@code MercadoPagoService}).
+ * <p>
+ * Métricas do pool: {@code mercadopago.http.pool.leased}, {@code .available}, {@code .pending} e {@code .max}.
+ */
+@Configuration
+public class MercadoPagoClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager mercadoPagoConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${app.mercadopago.http.max-connections:20}") int maxConnections,
+            @Value("${app.mercadopago.http.connection-ttl:5m}") Duration connectionTtl,
+            @Value("${app.mercadopago.http.tls-session-timeout:1h}") Duration tlsSessionTimeout) {
+        SSLContext sslContext = SSLContexts.createDefault();
+        // Sessões TLS guardadas para retomada (handshake abreviado) ao abrir novas conexões
+        sslContext.getClientSessionContext().setSessionTimeout((int) tlsSessionTimeout.toSeconds());
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("https", new SSLConnectionSocketFactory(sslContext))
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = pooledConnectionManager(
+                registry, null, maxConnections, connectionTtl);
+
+        Gauge.builder("mercadopago.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Conexões com o Mercado Pago em uso")
+                .register(meterRegistry);
+        Gauge.builder("mercadopago.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Conexões com o Mercado Pago abertas e livres")
+                .register(meterRegistry);
+        Gauge.builder("mercadopago.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Chamadas aguardando uma conexão livre")
+                .register(meterRegistry);
+        Gauge.builder("mercadopago.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Limite de conexões com o Mercado Pago")
+                .register(meterRegistry);
+        return connectionManager;
+    }
+
+    /** Pool com os limites do Mercado Pago; {@code dnsResolver} nulo usa o DNS do sistema. */
+    static PoolingHttpClientConnectionManager pooledConnectionManager(Registry<ConnectionSocketFactory> registry,
+                                                                      DnsResolver dnsResolver, int maxConnections,
+                                                                      Duration connectionTtl) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                registry, null, null, dnsResolver, connectionTtl.toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        // Um único host (api.mercadopago.com): o limite por rota é o do pool
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient mercadoPagoHttpClient(
+            PoolingHttpClientConnectionManager mercadoPagoConnectionManager,
+            @Value("${app.mercadopago.http.keep-alive:30s}") Duration keepAlive) {
+        long keepAliveMillis = keepAlive.toMillis();
+        return HttpClients.custom()
+                .setConnectionManager(mercadoPagoConnectionManager)
+                // Respeita o Keep-Alive do servidor, limitado ao configurado
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+                })
+                // Sem estado por usuário nas conexões: qualquer chamada reaproveita qualquer conexão TLS do pool
+                .disableConnectionState()
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                // Só repete falhas de conexão antes do envio: criar pagamento não é idempotente
+                .setRetryHandler(new DefaultHttpRequestRetryHandler(1, false))
+                .build();
+    }
+
+    /**
+     * Cliente HTTP do SDK sobre o pool. Também registrado como padrão do SDK ({@link MercadoPagoConfig#setHttpClient}),
+     * para que clientes criados fora dos beans usem o mesmo pool.
+     */
+    @Bean
+    public MPHttpClient mercadoPagoSdkHttpClient(CloseableHttpClient mercadoPagoHttpClient,
+                                                 @Value("${app.mercadopago.http.max-connections:20}") int maxConnections) {
+        MPHttpClient client = new PooledMercadoPagoHttpClient(mercadoPagoHttpClient);
+        MercadoPagoConfig.setMaxConnections(maxConnections);
+        MercadoPagoConfig.setHttpClient(client);
+        return client;
+    }
+
+    @Bean
+    public PaymentClient paymentClient(MPHttpClient mercadoPagoSdkHttpClient) {
+        return new PaymentClient(mercadoPagoSdkHttpClient);
+    }
+
+    @Bean
+    public PreferenceClient preferenceClient(MPHttpClient mercadoPagoSdkHttpClient) {
+        return new PreferenceClient(mercadoPagoSdkHttpClient);
+    }
+
+    /** Cliente padrão do SDK (timeouts por requisição, tratamento de resposta) usando o HttpClient informado. */
+    static class PooledMercadoPagoHttpClient extends MPDefaultHttpClient {
+
+        PooledMercadoPagoHttpClient(HttpClient httpClient) {
+            super(httpClient);
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class WebConfig {
         config.setAllowedOrigins(List.of("http://localhost:5173", "https://artilheirostore.netlify.app/"));
         config.setAllowedMethods(List.of("GET", "POST", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of("X-Next-Cursor", "ETag", "Last-Modified"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
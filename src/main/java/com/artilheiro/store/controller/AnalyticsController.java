@@ -0,0 +1,53 @@
+package com.artilheiro.store.controller;
+
+import com.artilheiro.store.dto.analytics.SalesSummaryRow;
+import com.artilheiro.store.service.analytics.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final int DEFAULT_PERIOD_DAYS = 30;
+
+    private final SalesRollupService salesRollupService;
+
+    public AnalyticsController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    /**
+     * Unidades e receita de pedidos pagos (admin) no período (from/to, AAAA-MM-DD, inclusive; padrão: últimos 30 dias),
+     * agrupadas por {@code groupBy} (day, team, liga, paymentMethod; pode repetir ou separar por vírgula; padrão: day).
+     * Filtros opcionais por time, liga e meio de pagamento. Lê só o consolidado diário.
+     */
+    @GetMapping("/sales")
+    public List<SalesSummaryRow> sales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) String team,
+            @RequestParam(required = false) String liga,
+            @RequestParam(required = false) String paymentMethod) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_PERIOD_DAYS - 1);
+        return salesRollupService.summarize(start, end, SalesRollupService.parseGroupBy(groupBy), team, liga, paymentMethod);
+    }
+
+    /**
+     * Recalcula o consolidado de vendas a partir de todos os pedidos (admin).
+     */
+    @PostMapping("/sales/rebuild")
+    public Map<String, Object> rebuildSales() {
+        return Map.of("rows", salesRollupService.rebuild());
+    }
+}
@@ -1,5 +1,6 @@
 package com.artilheiro.store.controller;
 
+import com.artilheiro.store.dto.CursorPage;
 import com.artilheiro.store.dto.order.MercadoPagoWebhookPayload;
 import com.artilheiro.store.dto.order.OrderLookupResponse;
 import com.artilheiro.store.dto.order.OrderRequest;
@@ -7,13 +8,22 @@ import com.artilheiro.store.dto.order.OrderResponse;
 import com.artilheiro.store.dto.order.OrderUpdateRequest;
 import com.artilheiro.store.dto.order.PaymentCreateRequest;
 import com.artilheiro.store.dto.order.PaymentCreateResponse;
+import com.artilheiro.store.service.MercadoPagoService;
 import com.artilheiro.store.service.MercadoPagoWebhookSignatureValidator;
+import com.artilheiro.store.service.OrderAdminFilter;
+import com.artilheiro.store.service.OrderExportService;
 import com.artilheiro.store.service.OrderService;
+import com.artilheiro.store.service.events.OrderEventBroadcaster;
+import com.artilheiro.store.service.webhook.WebhookInbox;
 import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.exceptions.MPException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -25,7 +35,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -38,12 +51,21 @@ public class OrderController {
     private static final String MSG_NOT_FOUND = "Pedido não encontrado";
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final WebhookInbox webhookInbox;
+    private final MercadoPagoService mercadoPagoService;
+    private final OrderEventBroadcaster orderEventBroadcaster;
 
     @Value("${mercadopago.webhook-secret:}")
     private String webhookSecret;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService, WebhookInbox webhookInbox,
+                           MercadoPagoService mercadoPagoService, OrderEventBroadcaster orderEventBroadcaster) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.webhookInbox = webhookInbox;
+        this.mercadoPagoService = mercadoPagoService;
+        this.orderEventBroadcaster = orderEventBroadcaster;
     }
 
     @PostMapping
@@ -82,11 +104,52 @@ public class OrderController {
     }
 
     /**
-     * Lista todos os pedidos (admin).
+     * Lista pedidos (admin), mais recentes primeiro, paginados por cursor (header X-Next-Cursor).
+     * Filtros opcionais: status, período de criação (from/to, AAAA-MM-DD, inclusive), payment (paid ou pending)
+     * e q (texto no número do pedido, nome ou e-mail do cliente).
      */
     @GetMapping("/admin")
-    public List<OrderLookupResponse> listAll() {
-        return orderService.listAll();
+    public ResponseEntity<List<OrderLookupResponse>> listForAdmin(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String payment,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        OrderAdminFilter filter = OrderAdminFilter.of(status, from, to, payment, q);
+        CursorPage<OrderLookupResponse> page = orderService.listForAdmin(filter, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Exporta todos os pedidos (admin), opcionalmente de um período (from/to, AAAA-MM-DD, inclusive), como arquivo
+     * CSV (padrão) ou NDJSON ({@code format=ndjson}); com {@code gzip=true} o arquivo vem compactado (.gz).
+     * Os pedidos são escritos na resposta à medida que são lidos do banco.
+     */
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.from(format);
+        String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson";
+        String filename = "pedidos-" + LocalDate.now() + "." + extension + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == OrderExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> orderExportService.export(out, exportFormat, gzip, from, to);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
     }
 
     /**
@@ -116,21 +179,30 @@ public class OrderController {
     }
 
     /**
-     * Lista pedidos pelo CPF do cliente (aceita CPF com ou sem formatação).
+     * Lista pedidos pelo CPF do cliente (aceita CPF com ou sem formatação), mais recentes primeiro,
+     * paginados por cursor (header X-Next-Cursor).
      * Retorna lista vazia se o CPF não tiver 11 dígitos ou não houver pedidos.
      */
     @GetMapping("/by-cpf")
-    public ResponseEntity<?> listByCpf(@RequestParam(required = false) String cpf) {
+    public ResponseEntity<?> listByCpf(
+            @RequestParam(required = false) String cpf,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (cpf == null || cpf.isBlank()) {
             return ResponseEntity.badRequest().body(Map.of("message", "Informe o CPF."));
         }
-        List<OrderLookupResponse> list = orderService.listByCpf(cpf.trim());
-        return ResponseEntity.ok(list);
+        CursorPage<OrderLookupResponse> page = orderService.listByCpf(cpf.trim(), cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     /**
      * Webhook do Mercado Pago (POST com JSON).
-     * Aceita payment.created e payment.updated; atualiza o pedido quando o pagamento for aprovado.
+     * Aceita payment.created e payment.updated; a notificação é registrada e o pedido é atualizado em segundo plano
+     * quando o pagamento for aprovado.
      */
     @PostMapping("/webhook/mercadopago")
     public ResponseEntity<Void> mercadoPagoWebhookPost(
@@ -159,7 +231,7 @@ public class OrderController {
     }
 
     private ResponseEntity<Void> processWebhook(String type, String paymentIdStr, String xSignature, String xRequestId) {
-        if (type == null || paymentIdStr == null || paymentIdStr.isBlank()) {
+        if (type == null || paymentIdStr == null || paymentIdStr.isBlank() || paymentIdStr.length() > 100) {
             return ResponseEntity.badRequest().build();
         }
         if (webhookSecret != null && !webhookSecret.isBlank()) {
@@ -167,14 +239,42 @@ public class OrderController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
         }
+        invalidateCachedPayment(paymentIdStr);
+        // Só grava na caixa de entrada; a consulta ao MP e a atualização do pedido rodam em segundo plano
+        // (WebhookInboxWorker). Se a gravação falhar, a resposta de erro faz o MP reenviar a notificação.
+        webhookInbox.enqueue(type, paymentIdStr, xRequestId);
+        return ResponseEntity.ok().build();
+    }
+
+    /** O pagamento mudou: as próximas consultas (ex.: sync-payment) não devem usar o status em cache. */
+    private void invalidateCachedPayment(String paymentIdStr) {
+        try {
+            mercadoPagoService.invalidatePayment(Long.parseLong(paymentIdStr.trim()));
+        } catch (NumberFormatException ignored) {
+            // id inválido: não há pagamento em cache
+        }
+    }
+
+    /**
+     * Acompanha o status do pedido por Server-Sent Events (alternativa ao polling de /sync-payment).
+     * Envia o status atual ao conectar e um evento "status" ({@code {"orderNumber", "status"}}) a cada mudança
+     * (ex.: pagamento aprovado pelo webhook), além de um comentário periódico de heartbeat. A conexão expira após
+     * {@code app.order-events.timeout}; o EventSource do navegador reconecta sozinho. 404 se o pedido não existir.
+     */
+    @GetMapping("/{orderNumber}/events")
+    public ResponseEntity<SseEmitter> events(@PathVariable String orderNumber) {
+        var status = orderService.findStatus(orderNumber);
+        if (status.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
         try {
-            orderService.processMercadoPagoWebhook(type, paymentIdStr);
-        } catch (Exception e) {
-            // Responde 200 para o MP não reenviar em loop; log para diagnóstico.
-            org.slf4j.LoggerFactory.getLogger(OrderController.class)
-                    .warn("Webhook Mercado Pago: erro ao processar type={} paymentId={}", type, paymentIdStr, e);
+            SseEmitter emitter = orderEventBroadcaster.subscribe(orderNumber, status.get());
+            // Sem buffer em proxy reverso (nginx), para os eventos chegarem na hora
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (IllegalStateException e) {
+            // Limite de conexões desta instância: o EventSource tenta de novo
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
-        return ResponseEntity.ok().build();
     }
 
     /**
@@ -1,23 +1,41 @@
 package com.artilheiro.store.controller;
 
+import com.artilheiro.store.dto.CursorPage;
+import com.artilheiro.store.dto.product.ProductBatchItem;
+import com.artilheiro.store.dto.product.ProductBatchRequest;
+import com.artilheiro.store.dto.product.ProductFacetsResponse;
+import com.artilheiro.store.dto.product.ProductImportResponse;
 import com.artilheiro.store.dto.product.ProductRequest;
 import com.artilheiro.store.dto.product.ProductResponse;
+import com.artilheiro.store.dto.product.ProductSummaryResponse;
 import com.artilheiro.store.service.ProductService;
+import com.artilheiro.store.service.catalog.ProductFilter;
+import com.artilheiro.store.service.catalog.ProductListCache;
+import com.artilheiro.store.service.catalog.ResourceVersion;
+import com.artilheiro.store.service.importing.ProductImportService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -25,33 +43,138 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
+    /** Cache de CDN/navegador pode guardar, mas precisa revalidar (If-None-Match) a cada uso. */
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    /**
+     * Lista produtos ativos da vitrine. Sem {@code limit} nem {@code cursor}, devolve todos (compatível com o frontend atual);
+     * com eles, devolve uma página e o cursor da próxima no header X-Next-Cursor (ausente na última página).
+     * Responde 304 quando o If-None-Match corresponde à versão atual do catálogo (ETag com sufixo -gzip para quem
+     * aceita gzip; Vary: Accept-Encoding).
+     * Filtros adicionais: {@code size} (tamanhos com estoque, pode repetir), {@code inStock} e {@code priceBand}
+     * (ate_100, 100_200, 200_300, acima_300; pode repetir).
+     */
     @GetMapping
-    public List<ProductResponse> list(
+    public ResponseEntity<byte[]> list(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String team,
             @RequestParam(required = false) String liga,
-            @RequestParam(required = false) String search) {
-        return productService.findAll(category, team, liga, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> size,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        // A codificação é negociada antes da validação: o gzip tem ETag próprio (ver ResourceVersion#gzip)
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResourceVersion version = gzip ? productService.catalogVersion().gzip() : productService.catalogVersion();
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        // Bytes prontos do cache (JSON já serializado); gzip quando o cliente aceita
+        ProductFilter filter = ProductFilter.of(category, team, liga, search, size, inStock, priceBand);
+        ProductListCache.Body body = productService.findAllSerialized(filter, sort, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, body.nextCursor());
+        }
+        if (gzip && body.gzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    /**
+     * Contagens por time, liga, categoria, tamanho em estoque e faixa de preço para a barra de filtros,
+     * com os mesmos filtros da listagem.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsResponse> facets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String team,
+            @RequestParam(required = false) String liga,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> size,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) List<String> priceBand,
+            WebRequest webRequest) {
+        ResourceVersion version = productService.catalogVersion();
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(productService.facets(ProductFilter.of(category, team, liga, search, size, inStock, priceBand)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getById(@PathVariable UUID id) {
+    public ResponseEntity<ProductResponse> getById(@PathVariable UUID id, WebRequest webRequest) {
+        Optional<ResourceVersion> version = productService.productVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(version.get().etag(), version.get().lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
         return productService.findById(id)
-            .map(ResponseEntity::ok)
+            .map(product -> ResponseEntity.ok().cacheControl(REVALIDATE).body(product))
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Lista todos os produtos, inclusive inativos (admin).
+     * Vários produtos em uma requisição (carrinho/checkout), na ordem dos ids enviados.
+     * Ids desativados ou inexistentes vêm marcados com status INACTIVE / NOT_FOUND, sem produto.
+     */
+    @PostMapping("/batch")
+    public List<ProductBatchItem> getByIds(@Valid @RequestBody ProductBatchRequest request) {
+        return productService.findByIds(request.getIds());
+    }
+
+    /**
+     * Lista todos os produtos, inclusive inativos (admin). Sem {@code limit} nem {@code cursor}, devolve todos os
+     * produtos completos (contrato anterior à paginação); com eles, uma página do resumo da lista (miniatura e estoque
+     * total) e o cursor da próxima no header X-Next-Cursor. O produto completo vem de /admin/{id}.
      */
     @GetMapping("/admin")
-    public List<ProductResponse> listAllForAdmin() {
-        return productService.findAllForAdmin();
+    public ResponseEntity<?> listAllForAdmin(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(productService.findAllForAdmin(sort));
+        }
+        CursorPage<ProductSummaryResponse> page = productService.findAllForAdmin(sort, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Produto completo, inclusive inativo, para edição (admin).
+     */
+    @GetMapping("/admin/{id}")
+    public ResponseEntity<ProductResponse> getByIdForAdmin(@PathVariable UUID id) {
+        return productService.findByIdForAdmin(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -68,6 +191,8 @@ public class ProductController {
 
     /**
      * Atualiza um produto existente (admin). Novas imagens substituem as atuais se enviadas.
+     * O JSON traz a {@code version} da última leitura (sem ela, 400); responde 409 se o produto mudou depois, ex.:
+     * venda que baixou o estoque.
      */
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProductResponse> update(
@@ -78,4 +203,29 @@ public class ProductController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Importação em lote (admin): corpo CSV (text/csv) ou NDJSON (application/x-ndjson), lido em streaming.
+     * Linhas inválidas não impedem as demais; a resposta traz os totais e os erros por linha.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ProductImportResponse importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return productImportService.importProducts(body, ProductImportService.Format.fromContentType(contentType));
+    }
+
+    /** Accept-Encoding com gzip, exceto quando recusado explicitamente (gzip;q=0). */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,17 @@
+package com.artilheiro.store.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem paginada por cursor.
+ * O controller devolve os itens no corpo e o cursor da próxima página no header X-Next-Cursor
+ * (ausente na última página), mantendo o corpo compatível com as listas retornadas antes da paginação.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.artilheiro.store.dto.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Uma linha do relatório de vendas. Só vêm preenchidas as dimensões pedidas em {@code groupBy};
+ * as demais ficam nulas (totais somados sobre elas).
+ */
+public class SalesSummaryRow {
+
+    private LocalDate day;
+    private String team;
+    private String liga;
+    private String paymentMethod;
+    private long units;
+    private BigDecimal revenue;
+
+    public SalesSummaryRow() {
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public String getTeam() {
+        return team;
+    }
+
+    public void setTeam(String team) {
+        this.team = team;
+    }
+
+    public String getLiga() {
+        return liga;
+    }
+
+    public void setLiga(String liga) {
+        this.liga = liga;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
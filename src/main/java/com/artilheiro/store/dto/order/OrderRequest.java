@@ -2,6 +2,7 @@ package com.artilheiro.store.dto.order;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
@@ -178,6 +179,7 @@ public class OrderRequest {
         private String size;
 
         @NotNull(message = "quantity é obrigatório")
+        @Min(value = 1, message = "quantity deve ser maior que zero")
         private Integer quantity;
 
         @NotNull(message = "unitPrice é obrigatório")
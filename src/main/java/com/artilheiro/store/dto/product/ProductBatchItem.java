@@ -0,0 +1,53 @@
+package com.artilheiro.store.dto.product;
+
+import java.util.UUID;
+
+/**
+ * Resultado de um id na busca em lote: o produto (status OK) ou o motivo de não estar disponível.
+ */
+public class ProductBatchItem {
+
+    public enum Status {
+        OK,
+        /** Existe, mas está desativado (fora da vitrine). */
+        INACTIVE,
+        NOT_FOUND
+    }
+
+    private UUID id;
+    private Status status;
+    private ProductResponse product;
+
+    public ProductBatchItem() {
+    }
+
+    public ProductBatchItem(UUID id, Status status, ProductResponse product) {
+        this.id = id;
+        this.status = status;
+        this.product = product;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public ProductResponse getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductResponse product) {
+        this.product = product;
+    }
+}
@@ -0,0 +1,26 @@
+package com.artilheiro.store.dto.product;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Busca de vários produtos de uma vez (POST /api/products/batch), ex.: itens do carrinho.
+ */
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "Informe ao menos um id")
+    @Size(max = 100, message = "No máximo 100 ids por requisição")
+    private List<@NotNull UUID> ids;
+
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,99 @@
+package com.artilheiro.store.dto.product;
+
+import java.util.List;
+
+/**
+ * Contagens para a barra de filtros da vitrine (GET /api/products/facets).
+ * Cada faceta desconsidera o próprio filtro, para mostrar as alternativas; {@code total} e {@code sizes}
+ * consideram todos os filtros.
+ */
+public class ProductFacetsResponse {
+
+    private int total;
+    private List<FacetValue> categories;
+    private List<FacetValue> teams;
+    private List<FacetValue> ligas;
+    /** Tamanhos com estoque. */
+    private List<FacetValue> sizes;
+    /** Faixas de preço (valores do parâmetro priceBand: ate_100, 100_200, 200_300, acima_300). */
+    private List<FacetValue> priceBands;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<FacetValue> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetValue> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetValue> getTeams() {
+        return teams;
+    }
+
+    public void setTeams(List<FacetValue> teams) {
+        this.teams = teams;
+    }
+
+    public List<FacetValue> getLigas() {
+        return ligas;
+    }
+
+    public void setLigas(List<FacetValue> ligas) {
+        this.ligas = ligas;
+    }
+
+    public List<FacetValue> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(List<FacetValue> sizes) {
+        this.sizes = sizes;
+    }
+
+    public List<FacetValue> getPriceBands() {
+        return priceBands;
+    }
+
+    public void setPriceBands(List<FacetValue> priceBands) {
+        this.priceBands = priceBands;
+    }
+
+    /** Valor da faceta e quantidade de produtos. */
+    public static class FacetValue {
+
+        private String value;
+        private int count;
+
+        public FacetValue() {
+        }
+
+        public FacetValue(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
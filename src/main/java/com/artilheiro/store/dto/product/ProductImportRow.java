@@ -0,0 +1,23 @@
+package com.artilheiro.store.dto.product;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Linha da importação em lote (POST /api/products/import). Mesmos campos e validações de {@link ProductRequest},
+ * mais as URLs das imagens já hospedadas (a importação não recebe arquivos).
+ */
+public class ProductImportRow extends ProductRequest {
+
+    @Size(max = 20, message = "No máximo 20 imagens por produto")
+    private List<String> images;
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+}
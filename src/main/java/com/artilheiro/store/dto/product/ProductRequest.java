@@ -42,6 +42,13 @@ public class ProductRequest {
     /** Frete grátis para este produto. */
     private Boolean freteGratis = false;
 
+    /**
+     * Versão do produto lida pelo admin (campo {@code version} da resposta). Obrigatória na edição (ignorada no
+     * cadastro): se o produto tiver mudado desde então (ex.: estoque baixado por uma compra), a edição é recusada
+     * com 409.
+     */
+    private Long version;
+
     public ProductRequest() {
     }
 
@@ -116,4 +123,12 @@ public class ProductRequest {
     public void setFreteGratis(Boolean freteGratis) {
         this.freteGratis = freteGratis != null ? freteGratis : false;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
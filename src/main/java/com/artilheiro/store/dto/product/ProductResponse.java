@@ -18,6 +18,8 @@ public class ProductResponse {
     private Map<String, Integer> sizes;
     private Boolean active;
     private Boolean freteGratis;
+    /** Versão do produto; enviar de volta em {@code ProductRequest.version} ao editar. */
+    private Long version;
 
     public ProductResponse() {
     }
@@ -115,4 +117,12 @@ public class ProductResponse {
     public void setFreteGratis(Boolean freteGratis) {
         this.freteGratis = freteGratis;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,116 @@
+package com.artilheiro.store.dto.product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Item da listagem de produtos do admin: só o que a lista exibe. O produto completo (imagens e estoque por tamanho)
+ * é buscado em GET /api/products/admin/{id} ao editar.
+ */
+public class ProductSummaryResponse {
+
+    private UUID id;
+    private String name;
+    private String team;
+    private String liga;
+    private String category;
+    private BigDecimal price;
+    private BigDecimal promoPrice;
+    /** Primeira imagem (miniatura), ou null. */
+    private String image;
+    /** Estoque total (soma de todos os tamanhos). */
+    private Integer stock;
+    private Boolean active;
+    private Boolean freteGratis;
+
+    public ProductSummaryResponse() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getTeam() {
+        return team;
+    }
+
+    public void setTeam(String team) {
+        this.team = team;
+    }
+
+    public String getLiga() {
+        return liga;
+    }
+
+    public void setLiga(String liga) {
+        this.liga = liga;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getPromoPrice() {
+        return promoPrice;
+    }
+
+    public void setPromoPrice(BigDecimal promoPrice) {
+        this.promoPrice = promoPrice;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public void setImage(String image) {
+        this.image = image;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Boolean getFreteGratis() {
+        return freteGratis;
+    }
+
+    public void setFreteGratis(Boolean freteGratis) {
+        this.freteGratis = freteGratis;
+    }
+}
@@ -0,0 +1,61 @@
+package com.artilheiro.store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Versão do catálogo de produtos (linha única, id = 1). Incrementada na mesma transação de toda alteração de produto;
+ * as instâncias comparam com a versão do seu snapshot em memória para saber se precisam recarregar,
+ * e a versão compõe o ETag das listagens.
+ */
+@Entity
+@Table(name = "catalog_state")
+public class CatalogState {
+
+    public static final short SINGLETON_ID = 1;
+
+    @Id
+    private Short id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CatalogState() {
+    }
+
+    public CatalogState(Short id, Long version, LocalDateTime updatedAt) {
+        this.id = id;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    public void setId(Short id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,6 +8,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -34,6 +36,10 @@ public class Order {
     @Column(nullable = false)
     private String cpf;
 
+    /** CPF só com dígitos, derivado de {@code cpf} ao gravar; usado na busca por CPF (indexado). */
+    @Column(name = "cpf_digits", length = 11)
+    private String cpfDigits;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(nullable = false, columnDefinition = "jsonb")
     private Map<String, Object> address;
@@ -70,6 +76,22 @@ public class Order {
     @Column(name = "payment_id", length = 50)
     private String paymentId;
 
+    /** Meio de pagamento no Mercado Pago (ex.: pix, visa), gravado ao criar/confirmar o pagamento. */
+    @Column(name = "payment_method_id", length = 50)
+    private String paymentMethodId;
+
+    /** Tipo do pagamento no Mercado Pago (ex.: credit_card, bank_transfer, ticket). */
+    @Column(name = "payment_type_id", length = 50)
+    private String paymentTypeId;
+
+    /** Nome do meio de pagamento para exibição (ex.: "PIX", "Cartão Visa"). */
+    @Column(name = "payment_method_name", length = 100)
+    private String paymentMethodName;
+
+    /** Estoque dos itens baixado e ainda não devolvido (devolvido ao cancelar). */
+    @Column(name = "stock_reserved", nullable = false, columnDefinition = "boolean default false")
+    private boolean stockReserved;
+
     public enum OrderStatus {
         PAYMENT_PENDING,
         RECEIVED,
@@ -84,6 +106,24 @@ public class Order {
     public Order() {
     }
 
+    @PrePersist
+    @PreUpdate
+    void normalizeCpf() {
+        this.cpfDigits = cpfDigits(cpf);
+    }
+
+    /**
+     * Remove a formatação do CPF (ex.: "123.456.789-09" → "12345678909").
+     * Retorna {@code null} se o resultado não tiver exatamente 11 dígitos (cabe na coluna {@code cpf_digits}).
+     */
+    public static String cpfDigits(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        String digits = cpf.replaceAll("\\D", "");
+        return digits.length() == 11 ? digits : null;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -124,6 +164,10 @@ public class Order {
         this.cpf = cpf;
     }
 
+    public String getCpfDigits() {
+        return cpfDigits;
+    }
+
     public Map<String, Object> getAddress() {
         return address;
     }
@@ -211,4 +255,36 @@ public class Order {
     public void setPaymentId(String paymentId) {
         this.paymentId = paymentId;
     }
+
+    public String getPaymentMethodId() {
+        return paymentMethodId;
+    }
+
+    public void setPaymentMethodId(String paymentMethodId) {
+        this.paymentMethodId = paymentMethodId;
+    }
+
+    public String getPaymentTypeId() {
+        return paymentTypeId;
+    }
+
+    public void setPaymentTypeId(String paymentTypeId) {
+        this.paymentTypeId = paymentTypeId;
+    }
+
+    public String getPaymentMethodName() {
+        return paymentMethodName;
+    }
+
+    public void setPaymentMethodName(String paymentMethodName) {
+        this.paymentMethodName = paymentMethodName;
+    }
+
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
+    public void setStockReserved(boolean stockReserved) {
+        this.stockReserved = stockReserved;
+    }
 }
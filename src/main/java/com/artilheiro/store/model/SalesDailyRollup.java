@@ -0,0 +1,123 @@
+package com.artilheiro.store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Vendas consolidadas por dia (de criação do pedido), time, liga e meio de pagamento: unidades e receita dos itens
+ * de pedidos pagos. Mantida incrementalmente pelo {@code SalesRollupService}; dimensões ausentes são gravadas como "".
+ */
+@Entity
+@Table(name = "sales_daily_rollup")
+@IdClass(SalesDailyRollup.Key.class)
+public class SalesDailyRollup {
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    private String team;
+
+    @Id
+    private String liga;
+
+    @Id
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    public SalesDailyRollup() {
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public String getTeam() {
+        return team;
+    }
+
+    public void setTeam(String team) {
+        this.team = team;
+    }
+
+    public String getLiga() {
+        return liga;
+    }
+
+    public void setLiga(String liga) {
+        this.liga = liga;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    /** Chave composta (day, team, liga, payment_method). */
+    public static class Key implements Serializable {
+
+        private LocalDate day;
+        private String team;
+        private String liga;
+        private String paymentMethod;
+
+        public Key() {
+        }
+
+        public Key(LocalDate day, String team, String liga, String paymentMethod) {
+            this.day = day;
+            this.team = team;
+            this.liga = liga;
+            this.paymentMethod = paymentMethod;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(day, other.day) && Objects.equals(team, other.team)
+                    && Objects.equals(liga, other.liga) && Objects.equals(paymentMethod, other.paymentMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, team, liga, paymentMethod);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.artilheiro.store.repository;
+
+import com.artilheiro.store.model.CatalogState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CatalogStateRepository extends JpaRepository<CatalogState, Short> {
+
+    /**
+     * Lê a versão com lock de escrita (SELECT ... FOR UPDATE), serializando as alterações do catálogo
+     * entre instâncias até o commit.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CatalogState s WHERE s.id = :id")
+    Optional<CatalogState> findByIdForUpdate(@Param("id") Short id);
+
+    /** Só a versão, sem carregar a entidade (usada no polling de cada instância). */
+    @Query("SELECT s.version FROM CatalogState s WHERE s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Short id);
+}
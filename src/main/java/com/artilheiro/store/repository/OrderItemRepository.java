@@ -0,0 +1,14 @@
+package com.artilheiro.store.repository;
+
+import com.artilheiro.store.model.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+
+    /** Itens de vários pedidos em uma única consulta (ex.: uma página da listagem admin). */
+    List<OrderItem> findByOrderIdInOrderByOrderIdAscLineNumberAsc(Collection<UUID> orderIds);
+}
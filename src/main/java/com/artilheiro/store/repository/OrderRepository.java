@@ -1,26 +1,41 @@
 package com.artilheiro.store.repository;
 
 import com.artilheiro.store.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
-
-    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
 
     Optional<Order> findByOrderNumberAndEmailIgnoreCase(String orderNumber, String email);
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
     /**
-     * Busca pedidos pelo CPF (compara apenas dígitos, independente da formatação).
+     * Pedido com lock de escrita (SELECT ... FOR UPDATE) até o commit, para mudanças de status de pagamento não
+     * concorrerem com o cancelamento de pedidos vencidos ({@code PendingOrderReaper}).
      */
-    @Query(value = "SELECT * FROM orders WHERE REGEXP_REPLACE(cpf, '[^0-9]', '', 'g') = :normalizedCpf ORDER BY created_at DESC", nativeQuery = true)
-    List<Order> findByCpfNormalized(@Param("normalizedCpf") String normalizedCpf);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<Order> findByOrderNumberForUpdate(@Param("orderNumber") String orderNumber);
+
+    /** Pedido pelo id com lock de escrita (SELECT ... FOR UPDATE) até o commit. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("SELECT o.status FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<Order.OrderStatus> findStatusByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    /** Pedidos com pagamento mas sem o meio de pagamento gravado (backfill), em ordem de id após {@code after}. */
+    @Query("SELECT o FROM Order o WHERE o.paymentId IS NOT NULL AND o.paymentMethodId IS NULL AND o.id > :after ORDER BY o.id")
+    List<Order> findMissingPaymentMethod(@Param("after") UUID after, Pageable pageable);
 }
@@ -0,0 +1,20 @@
+package com.artilheiro.store.repository;
+
+import java.util.UUID;
+
+/**
+ * Atualizações atômicas do estoque por tamanho ({@code product.sizes}, jsonb) (fragmento de {@link ProductRepository}).
+ * Cada chamada é um único UPDATE condicional: trava só a linha do produto, até o fim da transação corrente.
+ */
+public interface ProductStockQueries {
+
+    /**
+     * Baixa {@code quantity} unidades do tamanho, se o produto estiver ativo e houver estoque suficiente.
+     *
+     * @return false se não havia estoque (ou o produto não existe, está inativo ou não tem o tamanho)
+     */
+    boolean decrementStock(UUID productId, String size, int quantity);
+
+    /** Devolve {@code quantity} unidades ao tamanho (ex.: pedido cancelado). */
+    void incrementStock(UUID productId, String size, int quantity);
+}
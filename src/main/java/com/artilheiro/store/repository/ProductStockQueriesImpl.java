@@ -0,0 +1,54 @@
+package com.artilheiro.store.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.UUID;
+
+/**
+ * Implementação de {@link ProductStockQueries} em JDBC: a conferência do estoque e a baixa acontecem no mesmo
+ * UPDATE, então duas compras simultâneas do último item não conseguem vender mais do que existe. A versão do
+ * produto (coluna {@code @Version}) é incrementada: a edição do admin que envia a versão lida é recusada se uma
+ * compra baixou o estoque depois, e a que não envia ainda falha se a baixa cair entre a leitura e a gravação.
+ * Edições sem versão feitas sobre uma tela antiga sobrescrevem o estoque.
+ */
+class ProductStockQueriesImpl implements ProductStockQueries {
+
+    private static final String DECREMENT = """
+            UPDATE product
+            SET sizes = jsonb_set(sizes, ARRAY[:size]::text[], to_jsonb((sizes ->> :size)::int - :quantity)),
+                version = version + 1,
+                updated_at = now()
+            WHERE id = :id AND active AND (sizes ->> :size)::int >= :quantity
+            """;
+
+    private static final String INCREMENT = """
+            UPDATE product
+            SET sizes = jsonb_set(sizes, ARRAY[:size]::text[], to_jsonb(COALESCE((sizes ->> :size)::int, 0) + :quantity)),
+                version = version + 1,
+                updated_at = now()
+            WHERE id = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    ProductStockQueriesImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean decrementStock(UUID productId, String size, int quantity) {
+        return jdbcTemplate.update(DECREMENT, params(productId, size, quantity)) == 1;
+    }
+
+    @Override
+    public void incrementStock(UUID productId, String size, int quantity) {
+        jdbcTemplate.update(INCREMENT, params(productId, size, quantity));
+    }
+
+    private static MapSqlParameterSource params(UUID productId, String size, int quantity) {
+        return new MapSqlParameterSource("id", productId)
+                .addValue("size", size)
+                .addValue("quantity", quantity);
+    }
+}
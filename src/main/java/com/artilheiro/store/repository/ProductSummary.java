@@ -0,0 +1,24 @@
+package com.artilheiro.store.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção de listagem de produto: só as colunas exibidas na lista, com a primeira imagem e o estoque total
+ * já extraídos do jsonb pelo banco. Lida via JDBC, sem entidade gerenciada nem desserialização dos arrays jsonb.
+ */
+public record ProductSummary(
+        UUID id,
+        String name,
+        String team,
+        String liga,
+        String category,
+        BigDecimal price,
+        BigDecimal promoPrice,
+        String image,
+        int stock,
+        boolean active,
+        boolean freteGratis,
+        LocalDateTime createdAt) {
+}
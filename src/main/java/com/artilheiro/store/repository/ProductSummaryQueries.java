@@ -0,0 +1,27 @@
+package com.artilheiro.store.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consultas de listagem leves de produtos (fragmento de {@link ProductRepository}).
+ */
+public interface ProductSummaryQueries {
+
+    /** Ordenações suportadas, cada uma apoiada em um índice (chave, id) da migração V6. */
+    enum SummaryOrder {
+        CREATED_AT_DESC,
+        PRICE_ASC,
+        PRICE_DESC,
+        NAME_ASC
+    }
+
+    /**
+     * Página de resumos de todos os produtos (inclusive inativos) por keyset: itens estritamente depois de
+     * ({@code afterKey}, {@code afterId}) na ordenação informada.
+     *
+     * @param afterKey valor da chave de ordenação do último item da página anterior (created_at, preço efetivo
+     *                 ou nome em minúsculas), ou null para a primeira página
+     */
+    List<ProductSummary> findSummaries(SummaryOrder order, Object afterKey, UUID afterId, int limit);
+}
@@ -0,0 +1,68 @@
+package com.artilheiro.store.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementação de {@link ProductSummaryQueries} em JDBC puro: lê só as colunas da listagem, extrai a primeira
+ * imagem e soma o estoque no próprio banco, sem passar pelo contexto de persistência do JPA.
+ */
+class ProductSummaryQueriesImpl implements ProductSummaryQueries {
+
+    private static final String SELECT = """
+            SELECT id, name, team, liga, category, price, promo_price, active, frete_gratis, created_at,
+                   images ->> 0 AS image,
+                   (SELECT COALESCE(SUM((value)::int), 0) FROM jsonb_each_text(sizes)) AS stock
+            FROM product
+            """;
+
+    private static final RowMapper<ProductSummary> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new ProductSummary(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("team"),
+                rs.getString("liga"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getBigDecimal("promo_price"),
+                rs.getString("image"),
+                rs.getInt("stock"),
+                rs.getBoolean("active"),
+                rs.getBoolean("frete_gratis"),
+                createdAt != null ? createdAt.toLocalDateTime() : null);
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    ProductSummaryQueriesImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<ProductSummary> findSummaries(SummaryOrder order, Object afterKey, UUID afterId, int limit) {
+        String key = switch (order) {
+            case CREATED_AT_DESC -> "created_at";
+            case PRICE_ASC, PRICE_DESC -> "COALESCE(promo_price, price)";
+            case NAME_ASC -> "lower(name)";
+        };
+        boolean descending = order == SummaryOrder.CREATED_AT_DESC || order == SummaryOrder.PRICE_DESC;
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (afterKey != null) {
+            // Comparação de linha (chave, id): usa o índice composto e continua exatamente após o cursor
+            sql.append("WHERE (").append(key).append(", id) ").append(descending ? "<" : ">")
+                    .append(" (:afterKey, :afterId)\n");
+            params.addValue("afterKey", afterKey).addValue("afterId", afterId);
+        }
+        String direction = descending ? " DESC" : " ASC";
+        sql.append("ORDER BY ").append(key).append(direction).append(", id").append(direction).append("\nLIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,56 @@
+package com.artilheiro.store.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cursor opaco de paginação por keyset: guarda a ordenação usada e os valores da chave de ordenação
+ * do último item da página (ex.: created_at e id). A próxima página começa estritamente depois desses valores,
+ * então páginas profundas custam o mesmo que a primeira.
+ */
+public record KeysetCursor(String sort, List<String> values) {
+
+    private static final String SEPARATOR = "\u001F";
+
+    public KeysetCursor {
+        values = List.copyOf(values);
+    }
+
+    public static KeysetCursor of(String sort, String... values) {
+        return new KeysetCursor(sort, Arrays.asList(values));
+    }
+
+    /** Codifica em Base64 URL-safe (vai em header e query string sem escape). */
+    public String encode() {
+        String raw = sort + SEPARATOR + String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente e confere se foi gerado para a mesma ordenação.
+     *
+     * @throws IllegalArgumentException se o cursor for inválido ou de outra ordenação
+     */
+    public static KeysetCursor decode(String token, String expectedSort, int expectedValues) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String[] parts = raw.split(SEPARATOR, -1);
+        if (parts.length != expectedValues + 1) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        if (!parts[0].equals(expectedSort)) {
+            throw new IllegalArgumentException("Cursor não corresponde à ordenação " + expectedSort);
+        }
+        return new KeysetCursor(parts[0], Arrays.asList(parts).subList(1, parts.length));
+    }
+
+    public String value(int index) {
+        return values.get(index);
+    }
+}
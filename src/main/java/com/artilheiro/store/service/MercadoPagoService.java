@@ -11,10 +11,13 @@ import com.mercadopago.client.preference.PreferenceClient;
 import com.mercadopago.client.preference.PreferenceItemRequest;
 import com.mercadopago.client.preference.PreferencePayerRequest;
 import com.mercadopago.client.preference.PreferenceRequest;
+import com.mercadopago.core.MPRequestOptions;
 import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.exceptions.MPException;
 import com.mercadopago.resources.payment.Payment;
 import com.mercadopago.resources.preference.Preference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,9 +25,11 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MercadoPagoService {
@@ -49,6 +54,64 @@ public class MercadoPagoService {
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
+    /** Chamada ao Mercado Pago medida por {@link #timed}. */
+    @FunctionalInterface
+    private interface MercadoPagoCall<T> {
+        T call() throws MPException, MPApiException;
+    }
+
+    private final PaymentReadCache paymentReadCache;
+    private final PaymentClient paymentClient;
+    private final PreferenceClient preferenceClient;
+    private final MeterRegistry meterRegistry;
+    /** Criação (pagamento/preferência): o Mercado Pago pode demorar (antifraude); consulta: curta, para não prender o webhook. */
+    private final MPRequestOptions createOptions;
+    private final MPRequestOptions getOptions;
+
+    public MercadoPagoService(PaymentReadCache paymentReadCache,
+                              PaymentClient paymentClient,
+                              PreferenceClient preferenceClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.mercadopago.timeouts.connection-request:2s}") Duration connectionRequestTimeout,
+                              @Value("${app.mercadopago.timeouts.create.connect:3s}") Duration createConnectTimeout,
+                              @Value("${app.mercadopago.timeouts.create.read:30s}") Duration createReadTimeout,
+                              @Value("${app.mercadopago.timeouts.get.connect:2s}") Duration getConnectTimeout,
+                              @Value("${app.mercadopago.timeouts.get.read:5s}") Duration getReadTimeout) {
+        this.paymentReadCache = paymentReadCache;
+        this.paymentClient = paymentClient;
+        this.preferenceClient = preferenceClient;
+        this.meterRegistry = meterRegistry;
+        this.createOptions = requestOptions(connectionRequestTimeout, createConnectTimeout, createReadTimeout);
+        this.getOptions = requestOptions(connectionRequestTimeout, getConnectTimeout, getReadTimeout);
+    }
+
+    /** Sem access token nas opções: o SDK usa o de {@link MercadoPagoConfig}. */
+    private static MPRequestOptions requestOptions(Duration connectionRequest, Duration connect, Duration read) {
+        return MPRequestOptions.builder()
+                .connectionRequestTimeout((int) connectionRequest.toMillis())
+                .connectionTimeout((int) connect.toMillis())
+                .socketTimeout((int) read.toMillis())
+                .build();
+    }
+
+    /** Registra a latência em {@code mercadopago.request} (tags operation e outcome). */
+    private <T> T timed(String operation, MercadoPagoCall<T> call) throws MPException, MPApiException {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder("mercadopago.request")
+                    .description("Latência das chamadas à API do Mercado Pago")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
     @PostConstruct
     public void init() {
         if (accessToken != null && !accessToken.isBlank()) {
@@ -155,9 +218,8 @@ public class MercadoPagoService {
         }
         PreferenceRequest request = requestBuilder.build();
 
-        PreferenceClient client = new PreferenceClient();
         try {
-            Preference preference = client.create(request);
+            Preference preference = timed("preference.create", () -> preferenceClient.create(request, createOptions));
             return new PreferenceResult(
                     preference.getId(),
                     preference.getInitPoint()
@@ -352,9 +414,8 @@ public class MercadoPagoService {
     }
 
     private Payment executePaymentCreate(PaymentCreateRequest request) throws MPException, MPApiException {
-        PaymentClient client = new PaymentClient();
         try {
-            return client.create(request);
+            return timed("payment.create", () -> paymentClient.create(request, createOptions));
         } catch (MPApiException e) {
             String detail = e.getApiResponse() != null && e.getApiResponse().getContent() != null
                     ? e.getApiResponse().getContent()
@@ -371,10 +432,24 @@ public class MercadoPagoService {
 
     /**
      * Busca um pagamento pelo id (para validar webhook e obter external_reference e status).
+     * Passa pelo {@link PaymentReadCache}: pode devolver o resultado de uma consulta recente ou em andamento.
      */
     public Payment getPayment(Long paymentId) throws MPException, MPApiException {
-        PaymentClient client = new PaymentClient();
-        return client.get(paymentId);
+        return paymentReadCache.get(paymentId, () -> fetchPayment(paymentId));
+    }
+
+    /** Busca o pagamento direto no Mercado Pago, sem usar o cache (e atualiza o cache com o resultado). */
+    public Payment refreshPayment(Long paymentId) throws MPException, MPApiException {
+        return paymentReadCache.refresh(paymentId, () -> fetchPayment(paymentId));
+    }
+
+    private Payment fetchPayment(Long paymentId) throws MPException, MPApiException {
+        return timed("payment.get", () -> paymentClient.get(paymentId, getOptions));
+    }
+
+    /** Descarta o pagamento do cache (notificação de mudança recebida). */
+    public void invalidatePayment(Long paymentId) {
+        paymentReadCache.invalidate(paymentId);
     }
 
     /** Garante URL absoluta (http/https) para o Mercado Pago. */
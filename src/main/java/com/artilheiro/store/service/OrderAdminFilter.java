@@ -0,0 +1,89 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.model.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtros da listagem admin de pedidos (GET /api/orders/admin), já normalizados.
+ *
+ * @param status  status exato, ou null para todos
+ * @param from    data inicial (inclusive) de criação, ou null
+ * @param to      data final (inclusive) de criação, ou null
+ * @param paid    true = pagos (status após a aprovação do pagamento, exceto cancelados),
+ *                false = aguardando pagamento, null = todos
+ * @param search  texto livre (minúsculas) buscado no número do pedido, nome e e-mail do cliente, ou null
+ */
+public record OrderAdminFilter(Order.OrderStatus status, LocalDate from, LocalDate to, Boolean paid, String search) {
+
+    /**
+     * @param payment "paid" ou "pending" (opcional)
+     * @throws IllegalArgumentException se status ou payment forem inválidos, ou o período estiver invertido
+     */
+    public static OrderAdminFilter of(String status, LocalDate from, LocalDate to, String payment, String search) {
+        Order.OrderStatus parsedStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                parsedStatus = Order.OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Status inválido: " + status);
+            }
+        }
+        Boolean paid = null;
+        if (payment != null && !payment.isBlank()) {
+            paid = switch (payment.trim().toLowerCase(Locale.ROOT)) {
+                case "paid" -> true;
+                case "pending" -> false;
+                default -> throw new IllegalArgumentException("payment deve ser paid ou pending");
+            };
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+        String normalizedSearch = search != null && !search.isBlank() ? search.trim().toLowerCase(Locale.ROOT) : null;
+        return new OrderAdminFilter(parsedStatus, from, to, paid, normalizedSearch);
+    }
+
+    /**
+     * Condições do filtro. A busca usa {@code lower(coluna) LIKE '%texto%'}, atendida pelos índices trigram da V8.
+     */
+    public Specification<Order> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from.atStartOfDay()));
+            }
+            if (to != null) {
+                LocalDateTime end = to.plusDays(1).atStartOfDay();
+                predicates.add(cb.lessThan(root.get("createdAt"), end));
+            }
+            if (paid != null) {
+                List<Order.OrderStatus> unpaid = List.of(Order.OrderStatus.PAYMENT_PENDING, Order.OrderStatus.CANCELLED);
+                predicates.add(paid
+                        ? cb.not(root.get("status").in(unpaid))
+                        : cb.equal(root.get("status"), Order.OrderStatus.PAYMENT_PENDING));
+            }
+            if (search != null) {
+                String pattern = "%" + escapeLike(search) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("orderNumber")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("customerName")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("email")), pattern, '\\')));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
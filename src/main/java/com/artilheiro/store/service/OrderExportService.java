@@ -0,0 +1,245 @@
+package com.artilheiro.store.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação completa de pedidos (admin) em CSV ou NDJSON, escrita direto na resposta.
+ * <p>
+ * Os pedidos são lidos por um cursor JDBC (somente leitura, {@code fetchSize} fixo) e cada linha é escrita assim que
+ * lida, então a memória usada não depende da quantidade de pedidos. A transação é somente leitura: não bloqueia
+ * gravações (o Postgres lê a foto do início da exportação).
+ * <p>
+ * CSV: uma linha por item do pedido (dados do pedido repetidos), endereço em colunas, separador ';' e BOM UTF-8
+ * para abrir direto no Excel em português. NDJSON: um objeto por pedido, endereço em campos e itens como array.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /** @throws IllegalArgumentException se não for csv nem ndjson */
+        public static Format from(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("csv")) return CSV;
+            if (value.equalsIgnoreCase("ndjson")) return NDJSON;
+            throw new IllegalArgumentException("format deve ser csv ou ndjson");
+        }
+    }
+
+    private static final String SELECT_SQL = """
+            SELECT order_number, created_at, status, customer_name, email, cpf, total, payment_id,
+                   payment_method_name, shipped_at, carrier, tracking_code, address::text AS address, items::text AS items
+            FROM orders
+            """;
+
+    private static final List<String> ORDER_COLUMNS = List.of(
+            "order_number", "created_at", "status", "customer_name", "email", "cpf", "total", "payment_id",
+            "payment_method_name", "shipped_at", "carrier", "tracking_code");
+    private static final List<String> ADDRESS_FIELDS = List.of("cep", "rua", "numero", "complemento", "cidade", "estado");
+    private static final List<String> ITEM_FIELDS = List.of("productId", "name", "size", "quantity", "unitPrice");
+    private static final char CSV_DELIMITER = ';';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper, @Value("${app.export.fetch-size:500}") int fetchSize) {
+        // JdbcTemplate próprio: o fetchSize faz o driver do Postgres usar cursor (lê em blocos, não tudo de uma vez)
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Cursor do Postgres exige autocommit desligado, ou seja, uma transação
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escreve os pedidos criados no período (datas inclusivas, opcionais) em {@code out}, do mais antigo ao mais recente.
+     */
+    public void export(OutputStream out, Format format, boolean gzip, LocalDate from, LocalDate to) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16 * 1024);
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            conditions.add("created_at >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            conditions.add("created_at < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        String sql = SELECT_SQL + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + "\n")
+                + "ORDER BY created_at, id";
+
+        RowCallbackHandler handler = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try {
+            readTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql, handler, args.toArray()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+
+    private JsonNode readJson(ResultSet rs, String column) throws SQLException {
+        String json = rs.getString(column);
+        try {
+            return json != null ? objectMapper.readTree(json) : objectMapper.nullNode();
+        } catch (IOException e) {
+            return objectMapper.nullNode();
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? "" : value.asText();
+    }
+
+    private final class CsvRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final List<String> row = new ArrayList<>();
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write('\uFEFF');
+            List<String> header = new ArrayList<>(ORDER_COLUMNS);
+            ADDRESS_FIELDS.forEach(field -> header.add("address_" + field));
+            ITEM_FIELDS.forEach(field -> header.add("item_" + field.replaceAll("([A-Z])", "_$1").toLowerCase(Locale.ROOT)));
+            writeRow(header);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            row.clear();
+            for (String column : ORDER_COLUMNS) {
+                Object value = rs.getObject(column);
+                row.add(value != null ? value.toString() : "");
+            }
+            JsonNode address = readJson(rs, "address");
+            for (String field : ADDRESS_FIELDS) {
+                row.add(text(address, field));
+            }
+            int orderColumns = row.size();
+            JsonNode items = readJson(rs, "items");
+            try {
+                if (!items.isArray() || items.isEmpty()) {
+                    ITEM_FIELDS.forEach(field -> row.add(""));
+                    writeRow(row);
+                    return;
+                }
+                for (JsonNode item : items) {
+                    row.subList(orderColumns, row.size()).clear();
+                    for (String field : ITEM_FIELDS) {
+                        row.add(text(item, field));
+                    }
+                    writeRow(row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeRow(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) writer.write(CSV_DELIMITER);
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.isEmpty()) return value;
+            // Evita que o Excel interprete texto do cliente como fórmula
+            if ("=+-@".indexOf(value.charAt(0)) >= 0 && !isNumber(value)) {
+                value = "'" + value;
+            }
+            if (value.indexOf(CSV_DELIMITER) >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+
+        private static boolean isNumber(String value) {
+            return value.matches("-?\\d+(\\.\\d+)?");
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // flush() só esvazia o buffer do gerador no writer; quem descarrega na resposta é o BufferedWriter
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            ObjectNode order = objectMapper.createObjectNode();
+            order.put("orderNumber", rs.getString("order_number"));
+            order.put("createdAt", String.valueOf(rs.getTimestamp("created_at").toLocalDateTime()));
+            order.put("status", rs.getString("status"));
+            order.put("customerName", rs.getString("customer_name"));
+            order.put("email", rs.getString("email"));
+            order.put("cpf", rs.getString("cpf"));
+            order.put("total", rs.getBigDecimal("total"));
+            order.put("paymentId", rs.getString("payment_id"));
+            order.put("paymentMethodName", rs.getString("payment_method_name"));
+            Timestamp shippedAt = rs.getTimestamp("shipped_at");
+            order.put("shippedAt", shippedAt != null ? shippedAt.toLocalDateTime().toString() : null);
+            order.put("carrier", rs.getString("carrier"));
+            order.put("trackingCode", rs.getString("tracking_code"));
+            JsonNode address = readJson(rs, "address");
+            for (String field : ADDRESS_FIELDS) {
+                order.put("address" + Character.toUpperCase(field.charAt(0)) + field.substring(1), text(address, field));
+            }
+            order.set("items", readJson(rs, "items"));
+            try {
+                generator.writeTree(order);
+                generator.flush();
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.artilheiro.store.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gera os números de pedido no formato {@code ART-AAAA-NNNN}, sequenciais dentro de cada ano.
+ * <p>
+ * Cada ano tem a sua sequence no Postgres ({@code order_number_seq_AAAA}, iniciada após o maior número já existente).
+ * {@link #next()} é só um {@code nextval} na conexão da transação do pedido: sem lock na aplicação e sem segunda
+ * conexão, então checkouts simultâneos não esperam uns pelos outros nem disputam o pool. As sequences do ano corrente
+ * e do seguinte são criadas na inicialização e verificadas a cada hora, fora do caminho do pedido. Se ainda assim a
+ * sequence do ano não existir no checkout, ela é criada na própria transação do pedido (ver {@link #next()}).
+ * Um pedido que sofre rollback não devolve o número; a numeração pode ter lacunas.
+ */
+@Component
+public class OrderNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberAllocator.class);
+    private static final String ORDER_PREFIX = "ART-";
+    private static final String SEQUENCE_PREFIX = "order_number_seq_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sequenceTransaction;
+    /** Anos cuja sequence já foi verificada/criada por esta instância. */
+    private final Set<Integer> readyYears = ConcurrentHashMap.newKeySet();
+
+    public OrderNumberAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Verificação periódica: DDL na sua própria transação, independente de qualquer pedido
+        this.sequenceTransaction = new TransactionTemplate(transactionManager);
+        this.sequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Próximo número de pedido do ano corrente (ex.: ART-2026-0042). */
+    public String next() {
+        int year = LocalDate.now().getYear();
+        if (!readyYears.contains(year)) {
+            // Só se a verificação periódica ainda não passou pelo ano (ex.: falha do banco na inicialização)
+            ensureSequenceInCurrentTransaction(year);
+        }
+        Long number = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_PREFIX + year + "')", Long.class);
+        return format(year, number);
+    }
+
+    /**
+     * Garante a sequence do ano na conexão do pedido, sem abrir outra: o checkout já segura locks de estoque e uma
+     * segunda conexão (REQUIRES_NEW) poderia esperar pelo pool ou por esses locks. O advisory lock da transação
+     * serializa só os pedidos que chegam antes de a sequence existir; se o pedido sofrer rollback, a sequence criada
+     * também some e o próximo pedido a cria de novo. A migração de sequences antigas (hi/lo) fica para
+     * {@link #ensureSequences()}.
+     */
+    private void ensureSequenceInCurrentTransaction(int year) {
+        String sequence = SEQUENCE_PREFIX + year;
+        List<Long> increment = jdbcTemplate.queryForList(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                Long.class, sequence);
+        if (!increment.isEmpty()) {
+            if (increment.get(0) == 1) {
+                readyYears.add(year);
+            }
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", sequence);
+        createSequence(year);
+    }
+    static String format(int year, long number) {
+        return ORDER_PREFIX + year + "-" + String.format("%04d", number);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureSequences();
+        } catch (Exception e) {
+            // Não impede a subida; o primeiro pedido (ou a próxima verificação) cria a sequence
+            log.warn("Número de pedido: falha ao preparar as sequences na inicialização", e);
+        }
+    }
+
+    /** Garante as sequences do ano corrente e do próximo (a virada do ano não depende do primeiro pedido). */
+    @Scheduled(cron = "0 0 * * * *")
+    public void ensureSequences() {
+        int year = LocalDate.now().getYear();
+        for (int candidate : new int[]{year, year + 1}) {
+            if (!readyYears.contains(candidate)) {
+                ensureSequence(candidate);
+            }
+        }
+    }
+
+    /**
+     * Cria a sequence do ano, se ainda não existir. Sequences criadas pela versão com blocos (hi/lo) andavam de
+     * {@code block-size} em {@code block-size}; passam a andar de 1 em 1, a partir do fim do último bloco reservado.
+     */
+    private void ensureSequence(int year) {
+        String sequence = SEQUENCE_PREFIX + year;
+        try {
+            sequenceTransaction.executeWithoutResult(status -> createSequence(year));
+        } catch (DataAccessException e) {
+            // Outra instância criou a mesma sequence ao mesmo tempo; segue usando a dela
+            log.debug("Sequence {} criada concorrentemente: {}", sequence, e.getMessage());
+        }
+        sequenceTransaction.executeWithoutResult(status -> {
+            List<Long> increment = jdbcTemplate.queryForList(
+                    "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                    Long.class, sequence);
+            if (increment.isEmpty()) {
+                throw new IllegalStateException("Sequence de número de pedido não encontrada: " + sequence);
+            }
+            long blockSize = increment.get(0);
+            if (blockSize != 1) {
+                // Pula o restante do último bloco reservado (pode estar em uso por uma instância antiga)
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY 1");
+                jdbcTemplate.queryForList("SELECT setval('" + sequence + "', last_value + ?) FROM " + sequence
+                        + " WHERE is_called", Long.class, blockSize - 1);
+            }
+        });
+        readyYears.add(year);
+    }
+
+    /** CREATE SEQUENCE do ano, começando após o maior número já existente, na transação atual. */
+    private void createSequence(int year) {
+        String prefix = ORDER_PREFIX + year + "-";
+        Long start = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(CAST(SUBSTRING(order_number FROM ?) AS BIGINT)), 0) + 1 FROM orders "
+                        + "WHERE order_number ~ ?",
+                Long.class, prefix.length() + 1, "^" + prefix + "[0-9]+$");
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_PREFIX + year + " START WITH " + start);
+    }
+}
@@ -1,5 +1,6 @@
 package com.artilheiro.store.service;
 
+import com.artilheiro.store.dto.CursorPage;
 import com.artilheiro.store.dto.order.OrderLookupItemResponse;
 import com.artilheiro.store.dto.order.OrderLookupResponse;
 import com.artilheiro.store.dto.order.OrderRequest;
@@ -7,20 +8,30 @@ import com.artilheiro.store.dto.order.OrderResponse;
 import com.artilheiro.store.dto.order.OrderUpdateRequest;
 import com.artilheiro.store.dto.order.PaymentCreateRequest;
 import com.artilheiro.store.dto.order.PaymentCreateResponse;
+import com.artilheiro.store.service.analytics.SalesRollupService;
+import com.artilheiro.store.service.events.OrderStatusChangedEvent;
 import com.mercadopago.resources.payment.Payment;
 import com.mercadopago.resources.payment.PaymentPointOfInteraction;
 import com.mercadopago.resources.payment.PaymentTransactionData;
 import com.mercadopago.resources.payment.PaymentTransactionDetails;
 import com.artilheiro.store.model.Order;
+import com.artilheiro.store.model.OrderItem;
 import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.OrderItemRepository;
 import com.artilheiro.store.repository.OrderRepository;
 import com.artilheiro.store.repository.ProductRepository;
 import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.exceptions.MPException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,26 +39,51 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
-    private static final String ORDER_PREFIX = "ART-";
+    private static final String NEWEST_CURSOR_SORT = "newest";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final MercadoPagoService mercadoPagoService;
-
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
-                        MercadoPagoService mercadoPagoService) {
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final StockReservationService stockReservationService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                        ProductRepository productRepository,
+                        MercadoPagoService mercadoPagoService, OrderNumberAllocator orderNumberAllocator,
+                        StockReservationService stockReservationService, SalesRollupService salesRollupService,
+                        ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                        @Value("${app.pagination.default-page-size:24}") int defaultPageSize,
+                        @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
         this.mercadoPagoService = mercadoPagoService;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.stockReservationService = stockReservationService;
+        this.salesRollupService = salesRollupService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -56,20 +92,26 @@ public class OrderService {
      */
     @Transactional
     public OrderResponse create(OrderRequest request) {
+        List<Map<String, Object>> items = toItemsMapList(request.getItems());
+        // Baixa o estoque antes de numerar o pedido: sem estoque, nenhum número é consumido
+        stockReservationService.reserve(items);
+
         Order order = new Order();
         order.setId(UUID.randomUUID());
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberAllocator.next());
         order.setCustomerName(request.getCustomer().getName());
         order.setEmail(request.getCustomer().getEmail());
         order.setCpf(request.getCustomer().getCpf());
         order.setAddress(toAddressMap(request.getAddress()));
-        List<Map<String, Object>> items = toItemsMapList(request.getItems());
+        order.setStockReserved(true);
         order.setItems(items);
         order.setTotal(calculateOrderTotal(items));
         order.setStatus(Order.OrderStatus.PAYMENT_PENDING);
         order.setCreatedAt(LocalDateTime.now());
 
         orderRepository.save(order);
+        // Itens também na tabela order_item (inserts em lote, hibernate.jdbc.batch_size)
+        orderItemRepository.saveAll(toOrderItems(order.getId(), items));
 
         return new OrderResponse(
                 order.getOrderNumber(),
@@ -81,10 +123,11 @@ public class OrderService {
 
     /**
      * Cria o pagamento no Mercado Pago (Checkout Transparente): cartão, PIX ou boleto.
+     * A chamada ao Mercado Pago acontece fora de transação; só depois o pedido é travado, o status conferido de novo
+     * e o resultado gravado, para o lock da linha (e a conexão) não ficar preso durante a chamada HTTP.
      */
-    @Transactional
     public PaymentCreateResponse createPaymentForOrder(String orderNumber, PaymentCreateRequest paymentRequest) throws MPException, MPApiException {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        Order order = transactionTemplate.execute(status -> orderRepository.findByOrderNumber(orderNumber))
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderNumber));
         if (order.getStatus() != Order.OrderStatus.PAYMENT_PENDING) {
             throw new IllegalStateException("Pedido não está pendente de pagamento: " + orderNumber);
@@ -145,11 +188,16 @@ public class OrderService {
             );
         }
 
-        if ("approved".equals(createPayment.getStatus())) {
-            order.setStatus(Order.OrderStatus.RECEIVED);
-            order.setPaymentId(String.valueOf(createPayment.getId()));
-            orderRepository.save(order);
-        }
+        transactionTemplate.executeWithoutResult(status -> orderRepository.findByOrderNumberForUpdate(orderNumber)
+                .ifPresent(locked -> {
+                    if ("approved".equals(createPayment.getStatus())) {
+                        receivePayment(locked, createPayment);
+                    } else if (locked.getStatus() == Order.OrderStatus.PAYMENT_PENDING) {
+                        // Meio de pagamento não muda depois de criado: grava já para a consulta não depender do MP
+                        applyPaymentMethod(locked, createPayment);
+                        orderRepository.save(locked);
+                    }
+                }));
 
         PaymentCreateResponse response = new PaymentCreateResponse(
                 createPayment.getId(),
@@ -163,7 +211,7 @@ public class OrderService {
         if (needsQrOrTicket && createPayment.getId() != null
                 && (response.getQrCode() == null && response.getQrCodeBase64() == null && response.getTicketUrl() == null)) {
             try {
-                Payment fullPayment = mercadoPagoService.getPayment(createPayment.getId());
+                Payment fullPayment = mercadoPagoService.refreshPayment(createPayment.getId());
                 fillPixAndBoletoResponse(fullPayment, response);
             } catch (Exception ignored) {
                 // mantém a resposta já preenchida
@@ -196,11 +244,74 @@ public class OrderService {
         }
     }
 
+    /**
+     * Lista pedidos (admin) com filtros, do mais recente para o mais antigo, paginados por cursor.
+     * A consulta usa keyset sobre (created_at, id) com LIMIT, apoiada nos índices da V8, então cada página
+     * custa o mesmo independentemente da profundidade.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderLookupResponse> listForAdmin(OrderAdminFilter filter, String cursor, Integer limit) {
+        return newestFirstPage(filter.toSpecification(), cursor, limit);
+    }
+
+    /**
+     * Lista pedidos pelo CPF do cliente (com ou sem formatação), mais recentes primeiro, paginados por cursor.
+     * Busca pela coluna {@code cpf_digits} (só dígitos), indexada junto com (created_at, id).
+     */
     @Transactional(readOnly = true)
-    public List<OrderLookupResponse> listAll() {
-        return orderRepository.findAll().stream()
-                .map(this::toLookupResponse)
+    public CursorPage<OrderLookupResponse> listByCpf(String cpf, String cursor, Integer limit) {
+        String normalized = Order.cpfDigits(cpf);
+        if (normalized == null) {
+            return new CursorPage<>(List.of(), null);
+        }
+        Specification<Order> byCpf = (root, query, cb) -> cb.equal(root.get("cpfDigits"), normalized);
+        return newestFirstPage(byCpf, cursor, limit);
+    }
+
+    /** Página de pedidos que satisfazem a condição, na ordem (created_at DESC, id DESC), após o cursor. */
+    private CursorPage<OrderLookupResponse> newestFirstPage(Specification<Order> spec, String cursor, Integer limit) {
+        int size = pageSize(limit);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(after(KeysetCursor.decode(cursor, NEWEST_CURSOR_SORT, 2)));
+        }
+        List<Order> rows = orderRepository.findBy(spec, query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Order> page = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            Order last = page.get(page.size() - 1);
+            next = KeysetCursor.of(NEWEST_CURSOR_SORT, last.getCreatedAt().toString(), last.getId().toString()).encode();
+        }
+        Map<UUID, List<OrderItem>> itemsByOrder = findItems(page);
+        List<OrderLookupResponse> responses = page.stream()
+                .map(order -> toLookupResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .toList();
+        return new CursorPage<>(responses, next);
+    }
+
+    /** Pedidos estritamente depois do cursor na ordem (created_at DESC, id DESC). */
+    private static Specification<Order> after(KeysetCursor cursor) {
+        LocalDateTime createdAt;
+        UUID id;
+        try {
+            createdAt = LocalDateTime.parse(cursor.value(0));
+            id = UUID.fromString(cursor.value(1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.<UUID>get("id"), id)));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit deve ser maior que zero");
+        }
+        return Math.min(limit, maxPageSize);
     }
 
     @Transactional(readOnly = true)
@@ -213,77 +324,73 @@ public class OrderService {
                 });
     }
 
-    /**
-     * Lista pedidos pelo CPF do cliente (apenas dígitos, ordem decrescente por data).
-     */
-    @Transactional(readOnly = true)
-    public List<OrderLookupResponse> listByCpf(String cpf) {
-        String normalized = cpf != null ? cpf.replaceAll("\\D", "") : "";
-        if (normalized.length() != 11) {
-            return List.of();
-        }
-        return orderRepository.findByCpfNormalized(normalized).stream()
-                .map(this::toLookupResponse)
-                .toList();
-    }
-
     /**
      * Processa notificação webhook do Mercado Pago.
      * Se type == "payment" e status do pagamento == "approved", atualiza o pedido para RECEIVED e grava payment_id.
+     * Como em {@link #syncOrderPaymentStatus}, o Mercado Pago é consultado fora de transação; só depois o pedido é
+     * travado, numa transação curta, e o status conferido e aplicado.
+     *
+     * @return status do pagamento no Mercado Pago, ou null se a notificação foi ignorada antes da consulta ou se o
+     * pagamento aprovado não foi aplicado a um pedido (sem external_reference, pedido inexistente ou cancelado), para
+     * não ser lembrado como já processado
      */
-    @Transactional
-    public void processMercadoPagoWebhook(String type, String paymentIdStr) throws MPException, MPApiException {
+    public String processMercadoPagoWebhook(String type, String paymentIdStr) throws MPException, MPApiException {
         if (type == null || !"payment".equals(type.trim()) || paymentIdStr == null || paymentIdStr.isBlank()) {
             log.debug("Webhook MP ignorado: type={}, paymentId={}", type, paymentIdStr);
-            return;
+            return null;
         }
         Long paymentId;
         try {
             paymentId = Long.parseLong(paymentIdStr.trim());
         } catch (NumberFormatException e) {
             log.warn("Webhook MP: payment_id inválido: {}", paymentIdStr);
-            return;
+            return null;
         }
-        Payment payment = mercadoPagoService.getPayment(paymentId);
+        // Notificação de mudança: consulta o status atual, não o do cache
+        Payment payment = mercadoPagoService.refreshPayment(paymentId);
         if (payment == null) {
             log.warn("Webhook MP: pagamento não encontrado: {}", paymentId);
-            return;
+            return null;
         }
         if (!"approved".equals(payment.getStatus())) {
             log.debug("Webhook MP: pagamento {} ainda não aprovado, status={}", paymentId, payment.getStatus());
-            return;
+            return payment.getStatus();
         }
         String externalReference = payment.getExternalReference();
         if (externalReference == null || externalReference.isBlank()) {
             log.warn("Webhook MP: pagamento {} sem external_reference", paymentId);
-            return;
+            return null;
         }
-        final String orderNumber = externalReference.trim();
-        orderRepository.findByOrderNumber(orderNumber).ifPresentOrElse(
-                order -> {
-                    if (order.getStatus() == Order.OrderStatus.PAYMENT_PENDING) {
-                        order.setStatus(Order.OrderStatus.RECEIVED);
-                        order.setPaymentId(String.valueOf(payment.getId()));
-                        orderRepository.save(order);
-                        log.info("Webhook MP: pedido {} atualizado para RECEIVED (paymentId={})", orderNumber, paymentId);
-                    } else {
-                        log.debug("Webhook MP: pedido {} já com status {}", orderNumber, order.getStatus());
-                    }
-                },
-                () -> log.warn("Webhook MP: pedido não encontrado: {}", orderNumber)
-        );
+        String orderNumber = externalReference.trim();
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findByOrderNumberForUpdate(orderNumber).orElse(null);
+            if (order == null) {
+                log.warn("Webhook MP: pedido não encontrado: {}", orderNumber);
+                return null;
+            }
+            if (receivePayment(order, payment)) {
+                log.info("Webhook MP: pedido {} atualizado para RECEIVED (paymentId={})", orderNumber, paymentId);
+            } else if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                // Ex.: boleto pago depois de o pedido vencer; exige conferência manual (estorno ou reativação)
+                return null;
+            } else {
+                log.debug("Webhook MP: pedido {} já com status {}", orderNumber, order.getStatus());
+            }
+            return payment.getStatus();
+        });
     }
 
     /**
      * Sincroniza o status do pedido com o pagamento no Mercado Pago.
-     * Se o pagamento estiver aprovado e o external_reference bater com o pedido, atualiza para RECEIVED.
+     * Se o pedido estiver pendente de pagamento, o pagamento aprovado e o external_reference bater com o pedido,
+     * atualiza para RECEIVED. O Mercado Pago é consultado antes de travar o pedido; com o lock, o status é conferido
+     * de novo (ex.: cancelado pelo vencimento nesse meio-tempo).
      * Retorna true se o pedido foi atualizado, false caso contrário.
      */
-    @Transactional
     public boolean syncOrderPaymentStatus(String orderNumber, Long paymentId) throws MPException, MPApiException {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        Order.OrderStatus current = transactionTemplate.execute(status -> orderRepository.findStatusByOrderNumber(orderNumber))
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderNumber));
-        if (order.getStatus() == Order.OrderStatus.RECEIVED) {
+        if (current != Order.OrderStatus.PAYMENT_PENDING) {
             return false;
         }
         Payment payment = mercadoPagoService.getPayment(paymentId);
@@ -294,22 +401,54 @@ public class OrderService {
         if (externalRef == null || !externalRef.trim().equals(orderNumber)) {
             return false;
         }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> orderRepository
+                .findByOrderNumberForUpdate(orderNumber)
+                .map(order -> receivePayment(order, payment))
+                .orElse(false)));
+    }
+
+    /**
+     * Marca como RECEIVED o pedido (já travado) cujo pagamento foi aprovado, se ainda estiver pendente de pagamento.
+     * Pedido cancelado não volta a RECEIVED: o estoque já foi devolvido; exige conferência manual.
+     *
+     * @return true se o pedido foi atualizado
+     */
+    private boolean receivePayment(Order order, Payment payment) {
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            log.warn("Pagamento {} aprovado para o pedido cancelado {}", payment.getId(), order.getOrderNumber());
+            return false;
+        }
+        if (order.getStatus() != Order.OrderStatus.PAYMENT_PENDING) {
+            return false;
+        }
         order.setStatus(Order.OrderStatus.RECEIVED);
         order.setPaymentId(String.valueOf(payment.getId()));
+        applyPaymentMethod(order, payment);
+        statusChanged(order, Order.OrderStatus.PAYMENT_PENDING);
         orderRepository.save(order);
         return true;
     }
 
+    /**
+     * Atualiza status e dados de envio (admin). O pedido é lido com lock de escrita, como nas mudanças de status de
+     * pagamento, para que duas transições simultâneas não somem (ou subtraiam) o pedido duas vezes no consolidado.
+     *
+     * @throws IllegalStateException ao reativar um pedido cancelado cujos itens não têm mais estoque
+     */
     @Transactional
     public Optional<OrderLookupResponse> updateOrder(UUID id, OrderUpdateRequest request) {
-        return orderRepository.findById(id)
+        return orderRepository.findByIdForUpdate(id)
                 .map(order -> {
                     if (request.getStatus() != null && !request.getStatus().isBlank()) {
+                        Order.OrderStatus status = null;
                         try {
-                            order.setStatus(Order.OrderStatus.valueOf(request.getStatus().trim().toUpperCase()));
+                            status = Order.OrderStatus.valueOf(request.getStatus().trim().toUpperCase());
                         } catch (IllegalArgumentException ignored) {
                             // mantém status atual se valor inválido
                         }
+                        if (status != null) {
+                            changeStatus(order, status);
+                        }
                     }
                     if (request.getShippedAt() != null) {
                         order.setShippedAt(request.getShippedAt());
@@ -328,11 +467,60 @@ public class OrderService {
                 });
     }
 
+    /** Status atual do pedido (para a conexão de eventos), sem carregar o pedido inteiro. */
+    @Transactional(readOnly = true)
+    public Optional<Order.OrderStatus> findStatus(String orderNumber) {
+        return orderRepository.findStatusByOrderNumber(orderNumber);
+    }
+
+    /**
+     * Muda o status de um pedido já travado na transação atual, com o estoque acompanhando a transição: cancelar
+     * devolve o estoque reservado e sair de CANCELLED (reativação pelo admin) reserva de novo os itens. Usado
+     * também pelo {@link PendingOrderReaper}, para que o cancelamento por vencimento entre no consolidado de vendas.
+     *
+     * @throws IllegalStateException se algum item do pedido reativado não tiver mais estoque
+     */
+    void changeStatus(Order order, Order.OrderStatus status) {
+        Order.OrderStatus previous = order.getStatus();
+        if (status == previous) {
+            return;
+        }
+        if (status == Order.OrderStatus.CANCELLED) {
+            releaseStock(order);
+        } else if (previous == Order.OrderStatus.CANCELLED) {
+            reserveStock(order);
+        }
+        order.setStatus(status);
+        statusChanged(order, previous);
+    }
+
+    /**
+     * Efeitos de uma mudança de status na mesma transação: consolidado de vendas e aviso aos assinantes
+     * de eventos do pedido (enviado após o commit).
+     */
+    private void statusChanged(Order order, Order.OrderStatus previous) {
+        if (order.getStatus() == previous) {
+            return;
+        }
+        salesRollupService.recordTransition(order, previous);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getOrderNumber(), order.getStatus()));
+    }
+
     private OrderLookupResponse toLookupResponse(Order order) {
-        List<Map<String, Object>> orderItems = order.getItems() != null ? order.getItems() : List.of();
-        List<OrderLookupItemResponse> items = orderItems.stream()
-                .map(this::toLookupItemResponse)
-                .toList();
+        return toLookupResponse(order, findItems(List.of(order)).getOrDefault(order.getId(), List.of()));
+    }
+
+    /**
+     * @param orderItems linhas de order_item do pedido; vazio para pedidos sem linhas (usa o jsonb {@code items})
+     */
+    private OrderLookupResponse toLookupResponse(Order order, List<OrderItem> orderItems) {
+        List<OrderLookupItemResponse> items;
+        if (!orderItems.isEmpty()) {
+            items = orderItems.stream().map(OrderService::toLookupItemResponse).toList();
+        } else {
+            List<Map<String, Object>> itemMaps = order.getItems() != null ? order.getItems() : List.of();
+            items = itemMaps.stream().map(this::toLookupItemResponse).toList();
+        }
         OrderLookupResponse resp = new OrderLookupResponse(
                 order.getId(),
                 order.getOrderNumber(),
@@ -352,25 +540,42 @@ public class OrderService {
         return resp;
     }
 
+    /** Baixa de novo o estoque dos itens de um pedido reativado (o cancelamento o havia devolvido). */
+    private void reserveStock(Order order) {
+        if (order.isStockReserved()) {
+            return;
+        }
+        stockReservationService.reserve(order.getItems() != null ? order.getItems() : List.of());
+        order.setStockReserved(true);
+    }
+
+    /** Devolve ao estoque os itens de um pedido cancelado (uma única vez). */
+    private void releaseStock(Order order) {
+        if (!order.isStockReserved()) {
+            return;
+        }
+        stockReservationService.release(order.getItems() != null ? order.getItems() : List.of());
+        order.setStockReserved(false);
+    }
+
+    /** Meio de pagamento gravado no pedido (sem chamar o Mercado Pago). */
     private void enrichWithPaymentInfo(OrderLookupResponse resp, Order order) {
-        String paymentIdStr = order.getPaymentId();
-        if (paymentIdStr == null || paymentIdStr.isBlank()) {
+        if (order.getPaymentId() == null || order.getPaymentId().isBlank()) {
             return;
         }
-        try {
-            Long paymentId = Long.parseLong(paymentIdStr.trim());
-            Payment payment = mercadoPagoService.getPayment(paymentId);
-            if (payment == null) {
-                return;
-            }
-            String methodId = payment.getPaymentMethodId();
-            String typeId = payment.getPaymentTypeId();
-            resp.setPaymentMethodId(methodId);
-            resp.setPaymentTypeId(typeId);
-            resp.setPaymentMethodName(toPaymentMethodName(methodId, typeId));
-        } catch (NumberFormatException | MPException | MPApiException e) {
-            // mantém paymentId; método/tipo ficam null
+        resp.setPaymentMethodId(order.getPaymentMethodId());
+        resp.setPaymentTypeId(order.getPaymentTypeId());
+        resp.setPaymentMethodName(order.getPaymentMethodName());
+    }
+
+    /** Copia meio e tipo de pagamento (e o nome para exibição) do pagamento do Mercado Pago para o pedido. */
+    static void applyPaymentMethod(Order order, Payment payment) {
+        if (payment == null || payment.getPaymentMethodId() == null) {
+            return;
         }
+        order.setPaymentMethodId(payment.getPaymentMethodId());
+        order.setPaymentTypeId(payment.getPaymentTypeId());
+        order.setPaymentMethodName(toPaymentMethodName(payment.getPaymentMethodId(), payment.getPaymentTypeId()));
     }
 
     private static String toPaymentMethodName(String paymentMethodId, String paymentTypeId) {
@@ -407,6 +612,57 @@ public class OrderService {
         return new OrderLookupItemResponse(productId, name, image, images, team, liga, category, size, quantity, price);
     }
 
+    private static OrderLookupItemResponse toLookupItemResponse(OrderItem item) {
+        return new OrderLookupItemResponse(
+                item.getProductId() != null ? item.getProductId().toString() : null,
+                item.getName(),
+                item.getImage(),
+                item.getImages(),
+                item.getTeam(),
+                item.getLiga(),
+                item.getCategory(),
+                item.getSize(),
+                item.getQuantity(),
+                item.getUnitPrice());
+    }
+
+    /** Itens de order_item dos pedidos, agrupados por pedido na ordem do carrinho, em uma única consulta. */
+    private Map<UUID, List<OrderItem>> findItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> ids = orders.stream().map(Order::getId).toList();
+        Map<UUID, List<OrderItem>> byOrder = new LinkedHashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrderIdInOrderByOrderIdAscLineNumberAsc(ids)) {
+            byOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>()).add(item);
+        }
+        return byOrder;
+    }
+
+    /** Linhas de order_item a partir dos itens já montados do pedido (mesma foto do produto gravada no jsonb). */
+    private List<OrderItem> toOrderItems(UUID orderId, List<Map<String, Object>> items) {
+        List<OrderItem> orderItems = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> map = items.get(i);
+            OrderItem item = new OrderItem();
+            item.setOrderId(orderId);
+            item.setLineNumber(i);
+            item.setProductId(parseProductId(map.get("productId") != null ? map.get("productId").toString() : null));
+            item.setSize(map.get("size") != null ? map.get("size").toString() : null);
+            Integer quantity = toInteger(map.get("quantity"));
+            item.setQuantity(quantity != null ? quantity : 0);
+            item.setUnitPrice(toBigDecimal(map.get("unitPrice")));
+            item.setName(map.get("name") != null ? map.get("name").toString() : null);
+            item.setImage(map.get("image") != null ? map.get("image").toString() : null);
+            item.setImages(toImagesList(map.get("images")));
+            item.setTeam(map.get("team") != null ? map.get("team").toString() : null);
+            item.setLiga(map.get("liga") != null ? map.get("liga").toString() : null);
+            item.setCategory(map.get("category") != null ? map.get("category").toString() : null);
+            orderItems.add(item);
+        }
+        return orderItems;
+    }
+
     @SuppressWarnings("unchecked")
     private List<String> toImagesList(Object value) {
         if (value == null) return null;
@@ -440,15 +696,6 @@ public class OrderService {
         }
     }
 
-    private String generateOrderNumber() {
-        LocalDateTime now = LocalDateTime.now();
-        int year = now.getYear();
-        LocalDateTime startOfYear = LocalDateTime.of(year, 1, 1, 0, 0, 0);
-        LocalDateTime endOfYear = LocalDateTime.of(year, 12, 31, 23, 59, 59);
-        long count = orderRepository.countByCreatedAtBetween(startOfYear, endOfYear);
-        return ORDER_PREFIX + year + "-" + String.format("%04d", count + 1);
-    }
-
     private Map<String, Object> toAddressMap(OrderRequest.AddressDto address) {
         Map<String, Object> map = new HashMap<>();
         map.put("cep", address.getCep());
@@ -461,6 +708,7 @@ public class OrderService {
     }
 
     private List<Map<String, Object>> toItemsMapList(List<OrderRequest.ItemDto> items) {
+        Map<UUID, Product> products = findProducts(items);
         List<Map<String, Object>> list = new ArrayList<>();
         for (OrderRequest.ItemDto item : items) {
             Map<String, Object> map = new HashMap<>();
@@ -470,24 +718,20 @@ public class OrderService {
             map.put("quantity", item.getQuantity());
             BigDecimal unitPrice = item.getUnitPrice();
 
-            try {
-                UUID productId = UUID.fromString(productIdStr);
-                productRepository.findById(productId).ifPresent(product -> {
-                    map.put("name", product.getName());
-                    List<String> images = product.getImages() != null ? product.getImages() : Collections.emptyList();
-                    map.put("images", images);
-                    if (!images.isEmpty()) {
-                        map.put("image", images.get(0));
-                    }
-                    map.put("team", product.getTeam());
-                    map.put("liga", product.getLiga());
-                    map.put("category", product.getCategory());
-                    BigDecimal effectivePrice = product.getPromoPrice() != null && product.getPromoPrice().compareTo(BigDecimal.ZERO) > 0
-                            ? product.getPromoPrice() : product.getPrice();
-                    map.put("unitPrice", effectivePrice);
-                });
-            } catch (IllegalArgumentException ignored) {
-                // productId inválido: mantém só os dados enviados
+            Product product = products.get(parseProductId(productIdStr));
+            if (product != null) {
+                map.put("name", product.getName());
+                List<String> images = product.getImages() != null ? product.getImages() : Collections.emptyList();
+                map.put("images", images);
+                if (!images.isEmpty()) {
+                    map.put("image", images.get(0));
+                }
+                map.put("team", product.getTeam());
+                map.put("liga", product.getLiga());
+                map.put("category", product.getCategory());
+                BigDecimal effectivePrice = product.getPromoPrice() != null && product.getPromoPrice().compareTo(BigDecimal.ZERO) > 0
+                        ? product.getPromoPrice() : product.getPrice();
+                map.put("unitPrice", effectivePrice);
             }
             if (!map.containsKey("unitPrice")) {
                 map.put("unitPrice", unitPrice);
@@ -497,6 +741,38 @@ public class OrderService {
         return list;
     }
 
+    /**
+     * Produtos dos itens do pedido em uma única consulta (IN), em vez de um findById por item.
+     * Itens com productId inválido ou inexistente ficam de fora e mantêm só os dados enviados.
+     */
+    private Map<UUID, Product> findProducts(List<OrderRequest.ItemDto> items) {
+        Set<UUID> ids = new HashSet<>();
+        for (OrderRequest.ItemDto item : items) {
+            UUID id = parseProductId(item.getProductId());
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        Map<UUID, Product> products = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productRepository.findAllById(ids)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    private static UUID parseProductId(String productId) {
+        if (productId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(productId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private BigDecimal calculateOrderTotal(List<Map<String, Object>> items) {
         BigDecimal total = BigDecimal.ZERO;
         for (Map<String, Object> item : items) {
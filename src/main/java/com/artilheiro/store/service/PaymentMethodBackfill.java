@@ -0,0 +1,95 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.model.Order;
+import com.artilheiro.store.repository.OrderRepository;
+import com.artilheiro.store.service.analytics.SalesRollupService;
+import com.mercadopago.resources.payment.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Backfill único do meio de pagamento ({@code payment_method_id}, {@code payment_type_id} e
+ * {@code payment_method_name}) dos pedidos criados antes dessas colunas existirem.
+ * <p>
+ * Só roda com {@code app.backfill.payment-info=true}: percorre em lotes os pedidos com pagamento e sem meio gravado,
+ * consulta cada pagamento no Mercado Pago uma única vez e grava o resultado. Pedidos cujo pagamento não puder ser
+ * consultado são ignorados (ficam sem meio de pagamento na consulta) e podem ser tentados de novo em outra execução.
+ * Pedidos pagos já estão no consolidado de vendas sem meio de pagamento; as vendas deles passam para o meio gravado,
+ * na mesma transação (com o pedido bloqueado, como nas mudanças de status).
+ */
+@Component
+@ConditionalOnProperty(name = "app.backfill.payment-info", havingValue = "true")
+public class PaymentMethodBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentMethodBackfill.class);
+
+    private final OrderRepository orderRepository;
+    private final MercadoPagoService mercadoPagoService;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public PaymentMethodBackfill(OrderRepository orderRepository, MercadoPagoService mercadoPagoService,
+                                 SalesRollupService salesRollupService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.backfill.batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.mercadoPagoService = mercadoPagoService;
+        this.salesRollupService = salesRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        UUID after = new UUID(0L, 0L);
+        int updated = 0;
+        int failed = 0;
+        List<Order> batch;
+        do {
+            batch = orderRepository.findMissingPaymentMethod(after, PageRequest.of(0, batchSize));
+            for (Order order : batch) {
+                after = order.getId();
+                try {
+                    Payment payment = mercadoPagoService.getPayment(Long.parseLong(order.getPaymentId().trim()));
+                    if (payment == null || payment.getPaymentMethodId() == null) {
+                        failed++;
+                        continue;
+                    }
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> apply(order.getId(), payment)))) {
+                        updated++;
+                    }
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("Backfill meio de pagamento: pedido {} (paymentId={}) ignorado: {}",
+                            order.getOrderNumber(), order.getPaymentId(), e.getMessage());
+                }
+            }
+        } while (batch.size() == batchSize);
+        log.info("Backfill meio de pagamento concluído: {} pedidos atualizados, {} ignorados", updated, failed);
+    }
+
+    /** Grava o meio de pagamento, se o pedido ainda não tiver um, e move as vendas dele no consolidado. */
+    private boolean apply(UUID orderId, Payment payment) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || order.getPaymentMethodId() != null) {
+            return false;
+        }
+        String previousMethodName = order.getPaymentMethodName();
+        OrderService.applyPaymentMethod(order, payment);
+        orderRepository.save(order);
+        salesRollupService.recordPaymentMethodChange(order, previousMethodName);
+        return true;
+    }
+}
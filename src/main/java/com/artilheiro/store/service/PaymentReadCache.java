@@ -0,0 +1,194 @@
+package com.artilheiro.store.service;
+
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.resources.payment.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache das consultas de pagamento ao Mercado Pago, por id do pagamento.
+ * <p>
+ * Consultas simultâneas do mesmo pagamento compartilham uma única chamada HTTP (as demais esperam o resultado dela).
+ * O resultado fica em cache por um prazo que depende do status: curto enquanto o pagamento pode mudar (pending,
+ * in_process...), longo em status finais (approved, rejected, cancelled, refunded, charged_back). Erros não são
+ * guardados. Um webhook do pagamento invalida a entrada ({@link #invalidate}); cargas do mesmo pagamento iniciadas
+ * antes da invalidação não repovoam o cache com o status antigo nem são compartilhadas com consultas feitas depois
+ * dela (as de outros pagamentos não são afetadas).
+ * Limitado a {@code max-entries} pagamentos, com despejo LRU.
+ * <p>
+ * Métrica {@code mercadopago.payment.cache} por resultado: hit, coalesced (aguardou outra chamada) e miss.
+ */
+@Component
+public class PaymentReadCache {
+
+    /** Carrega o pagamento do Mercado Pago. */
+    @FunctionalInterface
+    public interface Loader {
+        Payment load() throws MPException, MPApiException;
+    }
+
+    private static final Set<String> FINAL_STATUSES = Set.of("approved", "rejected", "cancelled", "refunded", "charged_back");
+
+    /**
+     * Pagamento em cache, ou só a marca de invalidação ({@code payment == null}).
+     *
+     * @param stamp momento (no relógio {@link #clock}) em que a entrada foi gravada
+     */
+    private record Entry(Payment payment, long expiresAt, long stamp) {
+    }
+
+    /**
+     * Chamada em andamento.
+     *
+     * @param startedAt momento (no relógio {@link #clock}) em que a chamada começou
+     */
+    private record InFlight(CompletableFuture<Payment> future, long startedAt) {
+    }
+
+    private final long pendingTtlNanos;
+    private final long finalTtlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    /**
+     * Relógio lógico das gravações no cache: carga que começou antes da entrada atual do pagamento (invalidação ou
+     * resultado mais novo) não grava nem recebe novas consultas.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+
+    public PaymentReadCache(MeterRegistry meterRegistry,
+                            @Value("${app.mercadopago.payment-cache.pending-ttl:5s}") Duration pendingTtl,
+                            @Value("${app.mercadopago.payment-cache.final-ttl:10m}") Duration finalTtl,
+                            @Value("${app.mercadopago.payment-cache.max-entries:5000}") int maxEntries) {
+        this.pendingTtlNanos = pendingTtl.toNanos();
+        this.finalTtlNanos = finalTtl.toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.coalesced = cacheCounter(meterRegistry, "coalesced");
+        this.misses = cacheCounter(meterRegistry, "miss");
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("mercadopago.payment.cache")
+                .description("Consultas de pagamento ao Mercado Pago, por resultado do cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** Pagamento do cache, de uma chamada já em andamento ou, por fim, de {@code loader}. */
+    public Payment get(Long paymentId, Loader loader) throws MPException, MPApiException {
+        Payment cached = cached(paymentId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        InFlight call = new InFlight(new CompletableFuture<>(), clock.incrementAndGet());
+        while (true) {
+            InFlight running = inFlight.putIfAbsent(paymentId, call);
+            if (running == null) {
+                break;
+            }
+            if (running.startedAt() > stamp(paymentId)) {
+                coalesced.increment();
+                return await(running.future());
+            }
+            // Chamada iniciada antes da última invalidação: traria o status antigo; esta toma o lugar dela
+            if (inFlight.replace(paymentId, running, call)) {
+                break;
+            }
+        }
+        misses.increment();
+        try {
+            Payment payment = load(paymentId, loader, call.startedAt());
+            call.future().complete(payment);
+            return payment;
+        } catch (Exception e) {
+            call.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(paymentId, call);
+        }
+    }
+
+    /** Consulta sempre o Mercado Pago (sem compartilhar chamada em andamento) e atualiza o cache. */
+    public Payment refresh(Long paymentId, Loader loader) throws MPException, MPApiException {
+        invalidate(paymentId);
+        misses.increment();
+        return load(paymentId, loader, clock.incrementAndGet());
+    }
+
+    /** Descarta o pagamento do cache (ex.: webhook avisou que mudou). */
+    public synchronized void invalidate(Long paymentId) {
+        put(paymentId, new Entry(null, 0L, clock.incrementAndGet()));
+    }
+
+    /** @param startedAt momento (no relógio {@link #clock}) em que a carga começou */
+    private Payment load(Long paymentId, Loader loader, long startedAt) throws MPException, MPApiException {
+        Payment payment = loader.load();
+        if (payment != null) {
+            long ttl = FINAL_STATUSES.contains(payment.getStatus()) ? finalTtlNanos : pendingTtlNanos;
+            synchronized (this) {
+                Entry current = entries.get(paymentId);
+                if (current == null || current.stamp() < startedAt) {
+                    put(paymentId, new Entry(payment, System.nanoTime() + ttl, clock.incrementAndGet()));
+                }
+            }
+        }
+        return payment;
+    }
+
+    /** Grava a entrada e despeja a menos usada além do limite. Chamado com o lock do cache. */
+    private void put(Long paymentId, Entry entry) {
+        entries.put(paymentId, entry);
+        if (entries.size() > maxEntries) {
+            Map.Entry<Long, Entry> eldest = entries.entrySet().iterator().next();
+            entries.remove(eldest.getKey());
+        }
+    }
+
+    /** Momento da entrada atual do pagamento (invalidação ou resultado); 0 se não houver. */
+    private synchronized long stamp(Long paymentId) {
+        Entry entry = entries.get(paymentId);
+        return entry != null ? entry.stamp() : 0L;
+    }
+
+    private synchronized Payment cached(Long paymentId) {
+        Entry entry = entries.get(paymentId);
+        if (entry == null || entry.payment() == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            entries.remove(paymentId);
+            return null;
+        }
+        return entry.payment();
+    }
+
+    private static Payment await(CompletableFuture<Payment> running) throws MPException, MPApiException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MPApiException apiException) throw apiException;
+            if (cause instanceof MPException mpException) throw mpException;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            throw e;
+        }
+    }
+}
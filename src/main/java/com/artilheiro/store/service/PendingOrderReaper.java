@@ -0,0 +1,147 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.model.Order;
+import com.artilheiro.store.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cancela pedidos que ficaram em PAYMENT_PENDING além do prazo do meio de pagamento (PIX ou boleto vencido,
+ * checkout abandonado). O cancelamento é a mesma transição da edição pelo admin
+ * ({@link OrderService#changeStatus}): devolve o estoque reservado, atualiza o consolidado de vendas e avisa os
+ * assinantes de eventos do pedido.
+ * <p>
+ * Roda periodicamente em todas as instâncias. Cada lote é uma transação curta que trava os pedidos vencidos com
+ * {@code FOR UPDATE SKIP LOCKED}: pedidos já travados por outra instância ou por uma requisição (pagamento sendo
+ * criado, webhook) são pulados, nunca esperados, e cada pedido é cancelado por uma única instância. A busca usa o
+ * índice parcial de pedidos pendentes (V14). Um {@code lock_timeout} curto faz o lote desistir (e ficar para a próxima
+ * execução) em vez de segurar o checkout se a devolução de estoque encontrar produtos travados.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class PendingOrderReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingOrderReaper.class);
+
+    /**
+     * Prazo por meio de pagamento: sem pagamento criado, PIX, boleto e os demais (cartão recusado etc.).
+     * Os mais antigos primeiro, para que um atraso não deixe pedidos velhos para trás.
+     */
+    private static final String SELECT_EXPIRED = """
+            SELECT id FROM orders
+            WHERE status = 'PAYMENT_PENDING'
+              AND created_at < :latestCutoff
+              AND CASE
+                    WHEN payment_method_id IS NULL THEN created_at < :unpaidCutoff
+                    WHEN payment_method_id = 'pix' THEN created_at < :pixCutoff
+                    WHEN payment_method_id = 'bolbradesco' THEN created_at < :boletoCutoff
+                    ELSE created_at < :otherCutoff
+                  END
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final Duration unpaidExpiry;
+    private final Duration pixExpiry;
+    private final Duration boletoExpiry;
+    private final Duration otherExpiry;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public PendingOrderReaper(OrderRepository orderRepository, OrderService orderService,
+                              NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${app.reaper.expiry.unpaid:24h}") Duration unpaidExpiry,
+                              @Value("${app.reaper.expiry.pix:24h}") Duration pixExpiry,
+                              @Value("${app.reaper.expiry.boleto:7d}") Duration boletoExpiry,
+                              @Value("${app.reaper.expiry.other:24h}") Duration otherExpiry,
+                              @Value("${app.reaper.batch-size:50}") int batchSize,
+                              @Value("${app.reaper.max-batches:20}") int maxBatches) {
+        if (batchSize < 1 || maxBatches < 1) {
+            throw new IllegalArgumentException("app.reaper.batch-size e app.reaper.max-batches devem ser >= 1");
+        }
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.unpaidExpiry = unpaidExpiry;
+        this.pixExpiry = pixExpiry;
+        this.boletoExpiry = boletoExpiry;
+        this.otherExpiry = otherExpiry;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reaper.interval-ms:300000}",
+            initialDelayString = "${app.reaper.interval-ms:300000}")
+    public void reapExpired() {
+        int cancelled = 0;
+        try {
+            for (int i = 0; i < maxBatches; i++) {
+                Integer count = batchTransaction.execute(status -> cancelBatch(LocalDateTime.now()));
+                cancelled += count != null ? count : 0;
+                if (count == null || count < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cancelamento de pedidos vencidos interrompido (fica para a próxima execução): {}", e.getMessage());
+        }
+        if (cancelled > 0) {
+            log.info("Pedidos com pagamento vencido cancelados: {}", cancelled);
+        }
+    }
+
+    /** Trava e cancela um lote de pedidos vencidos; devolve quantos pedidos foram travados. */
+    private int cancelBatch(LocalDateTime now) {
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL lock_timeout = '2s'");
+        Timestamp unpaidCutoff = Timestamp.valueOf(now.minus(unpaidExpiry));
+        Timestamp pixCutoff = Timestamp.valueOf(now.minus(pixExpiry));
+        Timestamp boletoCutoff = Timestamp.valueOf(now.minus(boletoExpiry));
+        Timestamp otherCutoff = Timestamp.valueOf(now.minus(otherExpiry));
+        Timestamp latestCutoff = max(max(unpaidCutoff, pixCutoff), max(boletoCutoff, otherCutoff));
+        MapSqlParameterSource params = new MapSqlParameterSource("latestCutoff", latestCutoff)
+                .addValue("unpaidCutoff", unpaidCutoff)
+                .addValue("pixCutoff", pixCutoff)
+                .addValue("boletoCutoff", boletoCutoff)
+                .addValue("otherCutoff", otherCutoff)
+                .addValue("limit", batchSize);
+        List<UUID> ids = jdbcTemplate.queryForList(SELECT_EXPIRED, params, UUID.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // As linhas já estão travadas por esta transação; o status é conferido de novo por segurança
+        for (Order order : orderRepository.findAllById(ids)) {
+            if (order.getStatus() != Order.OrderStatus.PAYMENT_PENDING) {
+                continue;
+            }
+            orderService.changeStatus(order, Order.OrderStatus.CANCELLED);
+            orderRepository.save(order);
+            log.debug("Pedido {} cancelado: pagamento vencido", order.getOrderNumber());
+        }
+        return ids.size();
+    }
+
+    private static Timestamp max(Timestamp a, Timestamp b) {
+        return a.after(b) ? a : b;
+    }
+}
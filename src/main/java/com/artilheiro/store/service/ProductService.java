@@ -1,19 +1,45 @@
 package com.artilheiro.store.service;
 
+import com.artilheiro.store.dto.CursorPage;
+import com.artilheiro.store.dto.product.ProductBatchItem;
+import com.artilheiro.store.dto.product.ProductFacetsResponse;
 import com.artilheiro.store.dto.product.ProductRequest;
 import com.artilheiro.store.dto.product.ProductResponse;
+import com.artilheiro.store.dto.product.ProductSummaryResponse;
 import com.artilheiro.store.model.Product;
 import com.artilheiro.store.repository.ProductRepository;
-import org.springframework.data.jpa.domain.Specification;
+import com.artilheiro.store.repository.ProductSummary;
+import com.artilheiro.store.repository.ProductSummaryQueries.SummaryOrder;
+import com.artilheiro.store.service.catalog.CatalogEntry;
+import com.artilheiro.store.service.catalog.CatalogFacets;
+import com.artilheiro.store.service.catalog.CatalogSnapshot;
+import com.artilheiro.store.service.catalog.ProductCatalog;
+import com.artilheiro.store.service.catalog.ProductChangedEvent;
+import com.artilheiro.store.service.catalog.ProductFilter;
+import com.artilheiro.store.service.catalog.ProductListCache;
+import com.artilheiro.store.service.catalog.ProductSort;
+import com.artilheiro.store.service.catalog.ResourceVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import jakarta.persistence.criteria.Predicate;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -21,98 +47,251 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final SupabaseStorageService supabaseStorageService;
+    private final ProductCatalog productCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductListCache listCache;
+    private final ObjectMapper objectMapper;
+    /** Gravação do produto e da versão do catálogo; os uploads de imagem acontecem antes, fora dela. */
+    private final TransactionTemplate writeTransaction;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public ProductService(ProductRepository productRepository, SupabaseStorageService supabaseStorageService) {
+    public ProductService(ProductRepository productRepository, SupabaseStorageService supabaseStorageService,
+                          ProductCatalog productCatalog, ApplicationEventPublisher eventPublisher,
+                          ProductListCache listCache, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.pagination.default-page-size:24}") int defaultPageSize,
+                          @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
         this.productRepository = productRepository;
         this.supabaseStorageService = supabaseStorageService;
+        this.productCatalog = productCatalog;
+        this.eventPublisher = eventPublisher;
+        this.listCache = listCache;
+        this.objectMapper = objectMapper;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
-    public List<ProductResponse> findAll(String category, String team, String liga, String search) {
-        Specification<Product> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("active"), true));
+    /**
+     * Lista produtos ativos da vitrine a partir do catálogo em memória (sem acesso ao banco).
+     * A busca ignora acentos e maiúsculas e casa por prefixo de palavra (ex.: "brasileirao" encontra "Brasileirão").
+     *
+     * @param sort newest, price_asc, price_desc, name ou relevance (padrão: relevance com busca, newest sem busca)
+     */
+    public List<ProductResponse> findAll(ProductFilter filter, String sort) {
+        ProductSort productSort = ProductSort.from(sort, filter.hasSearch());
+        return productCatalog.find(filter, productSort).stream()
+            .map(this::toResponse)
+            .toList();
+    }
 
-            if (category != null && !category.isBlank()) {
-                predicates.add(cb.equal(cb.lower(root.get("category")), category.toLowerCase()));
-            }
-            if (team != null && !team.isBlank()) {
-                predicates.add(cb.equal(cb.lower(root.get("team")), team.toLowerCase()));
-            }
-            if (liga != null && !liga.isBlank()) {
-                predicates.add(cb.equal(cb.lower(root.get("liga")), liga.toLowerCase()));
-            }
-            if (search != null && !search.isBlank()) {
-                String pattern = "%" + search.toLowerCase() + "%";
-                predicates.add(cb.or(
-                    cb.like(cb.lower(root.get("name")), pattern),
-                    cb.like(cb.lower(root.get("team")), pattern),
-                    cb.like(cb.lower(root.get("liga")), pattern),
-                    cb.like(cb.lower(root.get("category")), pattern)
-                ));
+    /**
+     * Como {@link #findAll}, mas paginado por cursor: devolve até {@code limit} produtos após o cursor.
+     */
+    public CursorPage<ProductResponse> findPage(ProductFilter filter, String sort, String cursor, Integer limit) {
+        ProductSort productSort = ProductSort.from(sort, filter.hasSearch());
+        CursorPage<CatalogEntry> page = productCatalog.page(filter, productSort, cursor, pageSize(limit));
+        return new CursorPage<>(page.items().stream().map(this::toResponse).toList(), page.nextCursor());
+    }
+
+    /**
+     * Listagem da vitrine já serializada em JSON (e gzip), servida do cache enquanto a versão do catálogo não mudar.
+     * Sem {@code limit} nem {@code cursor} devolve a lista completa; com eles, uma página (como {@link #findPage}).
+     */
+    public ProductListCache.Body findAllSerialized(ProductFilter filter, String sort, String cursor, Integer limit) {
+        ProductSort productSort = ProductSort.from(sort, filter.hasSearch());
+        boolean paged = cursor != null || limit != null;
+        Integer size = paged ? pageSize(limit) : null;
+        ProductListCache.Key key = new ProductListCache.Key(productCatalog.current().version(), filter, productSort, cursor, size);
+        return listCache.get(key, () -> {
+            if (!paged) {
+                return ProductListCache.Body.of(toJson(findAll(filter, sort)), null);
             }
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+            CursorPage<ProductResponse> page = findPage(filter, sort, cursor, size);
+            return ProductListCache.Body.of(toJson(page.items()), page.nextCursor());
+        });
+    }
 
-        return productRepository.findAll(spec).stream()
-            .map(this::toResponse)
-            .toList();
+    /**
+     * Contagens por categoria, time, liga, tamanho em estoque e faixa de preço, com os mesmos filtros de {@link #findAll}.
+     * Calculadas por interseção dos bitmaps do catálogo em memória.
+     */
+    public ProductFacetsResponse facets(ProductFilter filter) {
+        CatalogFacets facets = productCatalog.facets(filter);
+        ProductFacetsResponse dto = new ProductFacetsResponse();
+        dto.setTotal(facets.total());
+        dto.setCategories(toFacetValues(facets.categories()));
+        dto.setTeams(toFacetValues(facets.teams()));
+        dto.setLigas(toFacetValues(facets.ligas()));
+        dto.setSizes(toFacetValues(facets.sizes()));
+        dto.setPriceBands(toFacetValues(facets.priceBands()));
+        return dto;
+    }
+
+    /** ETag / Last-Modified das listagens da vitrine (versão do catálogo em memória). */
+    public ResourceVersion catalogVersion() {
+        return ResourceVersion.ofCatalog(productCatalog.current());
+    }
+
+    /** ETag / Last-Modified de um produto ativo; vazio se ele não estiver na vitrine. */
+    public Optional<ResourceVersion> productVersion(UUID id) {
+        return productCatalog.current().get(id).map(ResourceVersion::ofProduct);
     }
 
     public Optional<ProductResponse> findById(UUID id) {
-        return productRepository.findById(id)
-                .filter(Product::getActive)
+        return productCatalog.current().get(id)
                 .map(this::toResponse);
     }
 
     /**
-     * Lista todos os produtos, inclusive inativos (admin).
+     * Vários produtos de uma vez (ex.: itens do carrinho), na ordem dos ids pedidos.
+     * Os ativos vêm do catálogo em memória; só os ids que não estão nele vão ao banco, numa única consulta IN,
+     * para distinguir produto desativado de inexistente.
+     */
+    public List<ProductBatchItem> findByIds(List<UUID> ids) {
+        CatalogSnapshot snapshot = productCatalog.current();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID id : ids) {
+            if (snapshot.get(id).isEmpty()) {
+                missing.add(id);
+            }
+        }
+        Set<UUID> inactive = missing.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(missing));
+
+        List<ProductBatchItem> items = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Optional<CatalogEntry> entry = snapshot.get(id);
+            if (entry.isPresent()) {
+                items.add(new ProductBatchItem(id, ProductBatchItem.Status.OK, toResponse(entry.get())));
+            } else {
+                ProductBatchItem.Status status = inactive.contains(id)
+                        ? ProductBatchItem.Status.INACTIVE
+                        : ProductBatchItem.Status.NOT_FOUND;
+                items.add(new ProductBatchItem(id, status, null));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Todos os produtos completos, inclusive inativos (admin), sem paginação: resposta de GET /api/products/admin sem
+     * {@code limit} nem {@code cursor}, mantida para clientes anteriores à listagem paginada.
      */
-    public List<ProductResponse> findAllForAdmin() {
-        return productRepository.findAll().stream()
+    public List<ProductResponse> findAllForAdmin(String sort) {
+        Sort order = switch (ProductSort.from(sort, false)) {
+            case PRICE_ASC -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"));
+            case NAME -> Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id"));
+            default -> Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        };
+        return productRepository.findAll(order).stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * Lista todos os produtos, inclusive inativos (admin), paginados por cursor direto no banco.
+     * Lê só as colunas da listagem (projeção {@link ProductSummary}), sem carregar entidades; a consulta usa keyset
+     * (WHERE (chave, id) &gt; cursor ORDER BY chave, id LIMIT n), apoiada nos índices da V6.
+     */
+    public CursorPage<ProductSummaryResponse> findAllForAdmin(String sort, String cursor, Integer limit) {
+        ProductSort productSort = ProductSort.from(sort, false);
+        SummaryOrder order = switch (productSort) {
+            case PRICE_ASC -> SummaryOrder.PRICE_ASC;
+            case PRICE_DESC -> SummaryOrder.PRICE_DESC;
+            case NAME -> SummaryOrder.NAME_ASC;
+            default -> SummaryOrder.CREATED_AT_DESC;
+        };
+        int size = pageSize(limit);
+
+        Object afterKey = null;
+        UUID afterId = null;
+        if (hasText(cursor)) {
+            KeysetCursor after = KeysetCursor.decode(cursor, productSort.param(), 2);
+            try {
+                afterId = UUID.fromString(after.value(1));
+                afterKey = switch (order) {
+                    case PRICE_ASC, PRICE_DESC -> new BigDecimal(after.value(0));
+                    case NAME_ASC -> after.value(0);
+                    case CREATED_AT_DESC -> LocalDateTime.parse(after.value(0));
+                };
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+
+        List<ProductSummary> rows = productRepository.findSummaries(order, afterKey, afterId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ProductSummary> items = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? adminCursor(items.get(items.size() - 1), productSort).encode() : null;
+        return new CursorPage<>(items.stream().map(ProductService::toSummaryResponse).toList(), next);
+    }
+
+    /**
+     * Produto completo (inclusive inativo) para edição no admin.
+     */
+    public Optional<ProductResponse> findByIdForAdmin(UUID id) {
+        return productRepository.findById(id)
+                .map(this::toResponse);
+    }
+
     /**
      * Atualiza um produto existente (admin). Novas imagens substituem as atuais se enviadas.
+     * O estoque ({@code sizes}) é sobrescrito, então {@code request.version} é obrigatória: a edição é recusada
+     * ({@link ObjectOptimisticLockingFailureException}) se o produto mudou depois de lido pelo admin.
+     * As imagens são enviadas ao bucket antes da transação (sem prender conexão do banco durante o upload) e
+     * removidas se a gravação falhar.
      */
     public Optional<ProductResponse> update(UUID id, ProductRequest request, List<MultipartFile> images) throws IOException {
-        return productRepository.findById(id)
-                .map(product -> {
-                    product.setName(request.getName());
-                    product.setTeam(request.getTeam());
-                    product.setLiga(request.getLiga());
-                    product.setCategory(request.getCategory());
-                    product.setPrice(request.getPrice());
-                    product.setPromoPrice(request.getPromoPrice());
-                    product.setSizes(request.getSizes());
-                    product.setActive(request.getActive() != null ? request.getActive() : true);
-                    product.setFreteGratis(request.getFreteGratis() != null ? request.getFreteGratis() : false);
-
-                    if (images != null && !images.isEmpty()) {
-                        List<String> imageUrls = new ArrayList<>();
-                        for (MultipartFile file : images) {
-                            if (file == null || file.isEmpty()) continue;
-                            try {
-                                String path = supabaseStorageService.buildProductImagePath(product.getId(), file);
-                                String publicUrl = supabaseStorageService.upload(file, path);
-                                imageUrls.add(publicUrl);
-                            } catch (IOException e) {
-                                throw new RuntimeException("Erro ao enviar imagem: " + e.getMessage());
-                            }
+        if (request.getVersion() == null) {
+            // Sem a versão lida, sizes sobrescreveria às cegas as baixas de estoque feitas por vendas
+            throw new IllegalArgumentException("Versão do produto é obrigatória na edição");
+        }
+        if (!productRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        UploadedImages uploaded = uploadImages(id, images);
+        Optional<ProductResponse> updated;
+        try {
+            updated = writeTransaction.execute(status -> productRepository.findById(id)
+                    .map(product -> {
+                        if (!request.getVersion().equals(product.getVersion())) {
+                            // Editado sobre dados antigos: gravar sizes desfaria as baixas de estoque feitas depois
+                            throw new ObjectOptimisticLockingFailureException(Product.class, id);
                         }
-                        if (!imageUrls.isEmpty()) {
-                            product.setImages(imageUrls);
+                        product.setName(request.getName());
+                        product.setTeam(request.getTeam());
+                        product.setLiga(request.getLiga());
+                        product.setCategory(request.getCategory());
+                        product.setPrice(request.getPrice());
+                        product.setPromoPrice(request.getPromoPrice());
+                        product.setSizes(request.getSizes());
+                        product.setActive(request.getActive() != null ? request.getActive() : true);
+                        product.setFreteGratis(request.getFreteGratis() != null ? request.getFreteGratis() : false);
+                        if (!uploaded.urls().isEmpty()) {
+                            product.setImages(uploaded.urls());
                         }
-                    }
 
-                    productRepository.save(product);
-                    return toResponse(product);
-                });
+                        product.setUpdatedAt(LocalDateTime.now());
+                        // flush já na edição: confere a versão no UPDATE e devolve a versão nova na resposta
+                        productRepository.saveAndFlush(product);
+                        eventPublisher.publishEvent(new ProductChangedEvent(product, productCatalog.nextVersion()));
+                        return toResponse(product);
+                    }));
+        } catch (RuntimeException e) {
+            supabaseStorageService.delete(uploaded.paths());
+            throw e;
+        }
+        if (updated.isEmpty()) {
+            supabaseStorageService.delete(uploaded.paths());
+        }
+        return updated;
     }
 
     /**
      * Cadastra um novo produto e envia as imagens para o bucket Supabase (CamisaImages).
+     * As imagens são enviadas antes da transação e removidas se a gravação falhar.
      *
      * @param request dados do produto
      * @param images  arquivos de imagem (opcional; se vazio, salva com lista vazia)
@@ -120,16 +299,7 @@ public class ProductService {
      */
     public ProductResponse create(ProductRequest request, List<MultipartFile> images) throws IOException {
         UUID productId = UUID.randomUUID();
-        List<String> imageUrls = new ArrayList<>();
-
-        if (images != null && !images.isEmpty()) {
-            for (MultipartFile file : images) {
-                if (file == null || file.isEmpty()) continue;
-                String path = supabaseStorageService.buildProductImagePath(productId, file);
-                String publicUrl = supabaseStorageService.upload(file, path);
-                imageUrls.add(publicUrl);
-            }
-        }
+        UploadedImages uploaded = uploadImages(productId, images);
 
         Product product = new Product();
         product.setId(productId);
@@ -139,16 +309,104 @@ public class ProductService {
         product.setCategory(request.getCategory());
         product.setPrice(request.getPrice());
         product.setPromoPrice(request.getPromoPrice());
-        product.setImages(imageUrls);
+        product.setImages(uploaded.urls());
         product.setSizes(request.getSizes());
         product.setActive(request.getActive() != null ? request.getActive() : true);
         product.setFreteGratis(request.getFreteGratis() != null ? request.getFreteGratis() : false);
         product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(product.getCreatedAt());
 
-        productRepository.save(product);
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                productRepository.save(product);
+                eventPublisher.publishEvent(new ProductChangedEvent(product, productCatalog.nextVersion()));
+            });
+        } catch (RuntimeException e) {
+            supabaseStorageService.delete(uploaded.paths());
+            throw e;
+        }
         return toResponse(product);
     }
 
+    /** Imagens enviadas ao bucket: paths (para remoção) e URLs públicas, na ordem dos arquivos. */
+    private record UploadedImages(List<String> paths, List<String> urls) {
+    }
+
+    /** Envia as imagens não vazias; se uma falhar, remove as já enviadas e propaga o erro. */
+    private UploadedImages uploadImages(UUID productId, List<MultipartFile> images) throws IOException {
+        List<String> paths = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        if (images == null) {
+            return new UploadedImages(paths, urls);
+        }
+        try {
+            for (MultipartFile file : images) {
+                if (file == null || file.isEmpty()) continue;
+                String path = supabaseStorageService.buildProductImagePath(productId, file);
+                urls.add(supabaseStorageService.upload(file, path));
+                paths.add(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            supabaseStorageService.delete(paths);
+            throw e;
+        }
+        return new UploadedImages(paths, urls);
+    }
+
+    private static List<ProductFacetsResponse.FacetValue> toFacetValues(Map<String, Integer> counts) {
+        return counts.entrySet().stream()
+                .map(count -> new ProductFacetsResponse.FacetValue(count.getKey(), count.getValue()))
+                .toList();
+    }
+
+    private byte[] toJson(List<ProductResponse> products) {
+        try {
+            return objectMapper.writeValueAsBytes(products);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar produtos: " + e.getMessage(), e);
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit deve ser maior que zero");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static KeysetCursor adminCursor(ProductSummary last, ProductSort sort) {
+        String id = last.id().toString();
+        return switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> KeysetCursor.of(sort.param(),
+                    (last.promoPrice() != null ? last.promoPrice() : last.price()).toPlainString(), id);
+            case NAME -> KeysetCursor.of(sort.param(), last.name().toLowerCase(Locale.ROOT), id);
+            default -> KeysetCursor.of(sort.param(), last.createdAt().toString(), id);
+        };
+    }
+
+    private static ProductSummaryResponse toSummaryResponse(ProductSummary summary) {
+        ProductSummaryResponse dto = new ProductSummaryResponse();
+        dto.setId(summary.id());
+        dto.setName(summary.name());
+        dto.setTeam(summary.team());
+        dto.setLiga(summary.liga());
+        dto.setCategory(summary.category());
+        dto.setPrice(summary.price());
+        dto.setPromoPrice(summary.promoPrice());
+        dto.setImage(summary.image());
+        dto.setStock(summary.stock());
+        dto.setActive(summary.active());
+        dto.setFreteGratis(summary.freteGratis());
+        return dto;
+    }
+
     private ProductResponse toResponse(Product product) {
         ProductResponse dto = new ProductResponse();
         dto.setId(product.getId());
@@ -162,6 +420,24 @@ public class ProductService {
         dto.setSizes(product.getSizes());
         dto.setActive(product.getActive());
         dto.setFreteGratis(product.getFreteGratis() != null ? product.getFreteGratis() : false);
+        dto.setVersion(product.getVersion());
+        return dto;
+    }
+
+    private ProductResponse toResponse(CatalogEntry entry) {
+        ProductResponse dto = new ProductResponse();
+        dto.setId(entry.id());
+        dto.setName(entry.name());
+        dto.setTeam(entry.team());
+        dto.setLiga(entry.liga());
+        dto.setCategory(entry.category());
+        dto.setPrice(entry.price());
+        dto.setPromoPrice(entry.promoPrice());
+        dto.setImages(entry.images());
+        dto.setSizes(entry.sizes());
+        dto.setActive(true);
+        dto.setFreteGratis(entry.freteGratis());
+        dto.setVersion(entry.version());
         return dto;
     }
 }
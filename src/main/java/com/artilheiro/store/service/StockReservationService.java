@@ -0,0 +1,100 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.repository.ProductRepository;
+import com.artilheiro.store.service.catalog.StockChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reserva de estoque por tamanho dos itens de um pedido.
+ * <p>
+ * Cada (produto, tamanho) é baixado com um UPDATE condicional ({@link ProductRepository#decrementStock}), que trava
+ * apenas a linha do produto até o commit do pedido: compras de produtos diferentes não esperam umas pelas outras.
+ * Os itens são baixados sempre na mesma ordem (id do produto, tamanho), evitando deadlock entre pedidos com os
+ * mesmos produtos. Se faltar estoque de qualquer item, a exceção desfaz as baixas anteriores junto com o pedido.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Comparator<StockKey> LOCK_ORDER = Comparator
+            .comparing(StockKey::productId)
+            .thenComparing(StockKey::size);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockReservationService(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Baixa o estoque de todos os itens (productId, size, quantity) na transação do pedido.
+     *
+     * @throws IllegalArgumentException se algum item tiver productId inválido ou quantidade menor que 1
+     * @throws IllegalStateException    se algum item não tiver estoque suficiente (ou o produto estiver indisponível)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(List<Map<String, Object>> items) {
+        Map<StockKey, Integer> quantities = group(items);
+        for (Map.Entry<StockKey, Integer> entry : quantities.entrySet()) {
+            StockKey key = entry.getKey();
+            if (!productRepository.decrementStock(key.productId(), key.size(), entry.getValue())) {
+                throw new IllegalStateException("Estoque insuficiente para o produto " + key.productId()
+                        + " no tamanho " + key.size());
+            }
+        }
+        publish(quantities);
+    }
+
+    /** Devolve ao estoque as quantidades dos itens (pedido cancelado ou pagamento expirado). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(List<Map<String, Object>> items) {
+        Map<StockKey, Integer> quantities = group(items);
+        for (Map.Entry<StockKey, Integer> entry : quantities.entrySet()) {
+            productRepository.incrementStock(entry.getKey().productId(), entry.getKey().size(), entry.getValue());
+        }
+        publish(quantities);
+    }
+
+    /** Soma as quantidades por (produto, tamanho), já na ordem de travamento. */
+    private static Map<StockKey, Integer> group(List<Map<String, Object>> items) {
+        Map<StockKey, Integer> quantities = new TreeMap<>(LOCK_ORDER);
+        for (Map<String, Object> item : items) {
+            UUID productId;
+            try {
+                productId = UUID.fromString(String.valueOf(item.get("productId")));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Produto inválido: " + item.get("productId"));
+            }
+            Object quantity = item.get("quantity");
+            int units = quantity instanceof Number number ? number.intValue() : 0;
+            if (units < 1) {
+                throw new IllegalArgumentException("Quantidade inválida para o produto " + productId);
+            }
+            quantities.merge(new StockKey(productId, String.valueOf(item.get("size"))), units, Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void publish(Map<StockKey, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Set<UUID> productIds = quantities.keySet().stream().map(StockKey::productId).collect(Collectors.toSet());
+        eventPublisher.publishEvent(new StockChangedEvent(productIds));
+    }
+
+    private record StockKey(UUID productId, String size) {
+    }
+}
@@ -1,10 +1,13 @@
 package com.artilheiro.store.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -16,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -25,6 +29,7 @@ import java.util.UUID;
 @Service
 public class SupabaseStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(SupabaseStorageService.class);
     private static final String STORAGE_OBJECT_PATH = "/storage/v1/object/";
     private static final String PUBLIC_PATH = "/storage/v1/object/public/";
 
@@ -103,6 +108,29 @@ public class SupabaseStorageService {
         return supabaseUrl + PUBLIC_PATH + bucket + "/" + objectPath;
     }
 
+    /**
+     * Remove arquivos do bucket (ex.: imagens enviadas para um cadastro que não foi salvo).
+     * Melhor esforço: uma falha só é registrada no log, sem exceção.
+     *
+     * @param objectPaths paths no bucket, como passados para {@link #upload}
+     */
+    public void delete(List<String> objectPaths) {
+        if (objectPaths.isEmpty() || serviceRoleKey == null || serviceRoleKey.isBlank()) {
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("apikey", serviceRoleKey);
+        headers.set("Authorization", "Bearer " + serviceRoleKey);
+
+        String url = supabaseUrl + STORAGE_OBJECT_PATH + bucket;
+        try {
+            restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(Map.of("prefixes", objectPaths), headers), String.class);
+        } catch (RuntimeException e) {
+            log.warn("Supabase: falha ao remover {} arquivo(s) do bucket {}: {}", objectPaths.size(), bucket, e.getMessage());
+        }
+    }
+
     /**
      * Gera um path único para a imagem do produto.
      */
@@ -0,0 +1,227 @@
+package com.artilheiro.store.service.analytics;
+
+import com.artilheiro.store.dto.analytics.SalesSummaryRow;
+import com.artilheiro.store.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Vendas consolidadas em {@code sales_daily_rollup} (dia de criação do pedido, time, liga e meio de pagamento).
+ * <p>
+ * Um pedido conta como venda enquanto estiver pago (qualquer status exceto PAYMENT_PENDING e CANCELLED, como no
+ * filtro {@code payment=paid} da listagem admin). Quem muda o status chama {@link #recordTransition} na mesma
+ * transação: ao entrar em um status pago os itens do pedido (tabela order_item) são somados, ao sair são subtraídos.
+ * Assim o relatório lê só a tabela consolidada, sem varrer pedidos. {@link #rebuild()} recalcula tudo a partir dos
+ * pedidos, se a tabela ficar divergente.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    /** Dimensões aceitas em {@code groupBy}, com a coluna correspondente. */
+    public enum Dimension {
+        DAY("day"),
+        TEAM("team"),
+        LIGA("liga"),
+        PAYMENT_METHOD("payment_method");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+
+        /** @throws IllegalArgumentException se não for day, team, liga ou paymentMethod */
+        public static Dimension from(String value) {
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "day" -> DAY;
+                case "team" -> TEAM;
+                case "liga" -> LIGA;
+                case "paymentmethod", "payment_method" -> PAYMENT_METHOD;
+                default -> throw new IllegalArgumentException("groupBy inválido: " + value);
+            };
+        }
+    }
+
+    /** Soma (ou subtrai, com sign = -1) os itens de um pedido; um INSERT por combinação de time e liga. */
+    private static final String APPLY_SQL = """
+            INSERT INTO sales_daily_rollup (day, team, liga, payment_method, units, revenue)
+            SELECT ?, COALESCE(team, ''), COALESCE(liga, ''), ?,
+                   ? * SUM(quantity), ? * SUM(COALESCE(unit_price, 0) * quantity)
+            FROM order_item
+            WHERE order_id = ?
+            GROUP BY 2, 3
+            ORDER BY 2, 3
+            ON CONFLICT (day, team, liga, payment_method) DO UPDATE
+            SET units = sales_daily_rollup.units + EXCLUDED.units,
+                revenue = sales_daily_rollup.revenue + EXCLUDED.revenue
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO sales_daily_rollup (day, team, liga, payment_method, units, revenue)
+            SELECT o.created_at::date, COALESCE(oi.team, ''), COALESCE(oi.liga, ''), COALESCE(o.payment_method_name, ''),
+                   SUM(oi.quantity), SUM(COALESCE(oi.unit_price, 0) * oi.quantity)
+            FROM orders o
+            JOIN order_item oi ON oi.order_id = o.id
+            WHERE o.status NOT IN ('PAYMENT_PENDING', 'CANCELLED')
+            GROUP BY 1, 2, 3, 4
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** true se o pedido neste status conta como venda. */
+    public static boolean isSale(Order.OrderStatus status) {
+        return status != null && status != Order.OrderStatus.PAYMENT_PENDING && status != Order.OrderStatus.CANCELLED;
+    }
+
+    /**
+     * Atualiza o consolidado se o pedido passou a contar (ou deixou de contar) como venda.
+     * Usa dia e meio de pagamento do objeto, que podem ainda não ter sido gravados no banco.
+     *
+     * @param previous status antes da alteração
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, Order.OrderStatus previous) {
+        boolean before = isSale(previous);
+        boolean after = isSale(order.getStatus());
+        if (before == after) {
+            return;
+        }
+        apply(order, order.getPaymentMethodName(), after ? 1 : -1);
+    }
+
+    /**
+     * Move as vendas de um pedido pago do meio de pagamento anterior para o atual (ex.: backfill do meio de
+     * pagamento). Pedido que não conta como venda não está no consolidado e é ignorado.
+     *
+     * @param previousMethodName meio de pagamento com que o pedido foi somado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPaymentMethodChange(Order order, String previousMethodName) {
+        String previous = previousMethodName != null ? previousMethodName : "";
+        String current = order.getPaymentMethodName() != null ? order.getPaymentMethodName() : "";
+        if (!isSale(order.getStatus()) || previous.equals(current)) {
+            return;
+        }
+        apply(order, previous, -1);
+        apply(order, current, 1);
+    }
+
+    private void apply(Order order, String paymentMethodName, int sign) {
+        jdbcTemplate.update(APPLY_SQL,
+                Date.valueOf(order.getCreatedAt().toLocalDate()),
+                paymentMethodName != null ? paymentMethodName : "",
+                sign, sign, order.getId());
+    }
+
+    /**
+     * Vendas do período (datas inclusivas), agrupadas pelas dimensões pedidas (na ordem da enum), ordenadas por elas.
+     * Filtros de time, liga e meio de pagamento são opcionais (valor exato).
+     */
+    @Transactional(readOnly = true)
+    public List<SalesSummaryRow> summarize(LocalDate from, LocalDate to, Set<Dimension> groupBy,
+                                           String team, String liga, String paymentMethod) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Data inicial posterior à data final");
+        }
+        List<String> columns = new ArrayList<>();
+        for (Dimension dimension : Dimension.values()) {
+            if (groupBy.contains(dimension)) {
+                columns.add(dimension.column);
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        columns.forEach(column -> sql.append(column).append(", "));
+        sql.append("SUM(units) AS units, SUM(revenue) AS revenue FROM sales_daily_rollup WHERE day BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (team != null && !team.isBlank()) {
+            sql.append(" AND team = ?");
+            args.add(team.trim());
+        }
+        if (liga != null && !liga.isBlank()) {
+            sql.append(" AND liga = ?");
+            args.add(liga.trim());
+        }
+        if (paymentMethod != null && !paymentMethod.isBlank()) {
+            sql.append(" AND payment_method = ?");
+            args.add(paymentMethod.trim());
+        }
+        if (!columns.isEmpty()) {
+            String list = String.join(", ", columns);
+            sql.append(" GROUP BY ").append(list).append(" HAVING SUM(units) <> 0 ORDER BY ").append(list);
+        }
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            SalesSummaryRow row = new SalesSummaryRow();
+            if (groupBy.contains(Dimension.DAY)) {
+                row.setDay(rs.getDate("day").toLocalDate());
+            }
+            if (groupBy.contains(Dimension.TEAM)) {
+                row.setTeam(emptyToNull(rs.getString("team")));
+            }
+            if (groupBy.contains(Dimension.LIGA)) {
+                row.setLiga(emptyToNull(rs.getString("liga")));
+            }
+            if (groupBy.contains(Dimension.PAYMENT_METHOD)) {
+                row.setPaymentMethod(emptyToNull(rs.getString("payment_method")));
+            }
+            row.setUnits(rs.getLong("units"));
+            row.setRevenue(rs.getBigDecimal("revenue") != null ? rs.getBigDecimal("revenue") : BigDecimal.ZERO);
+            return row;
+        }, args.toArray());
+    }
+
+    /** Converte os valores do parâmetro groupBy (ex.: "day,team"); sem valores, agrupa por dia. */
+    public static Set<Dimension> parseGroupBy(List<String> values) {
+        Set<Dimension> dimensions = new LinkedHashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                for (String part : value.split(",")) {
+                    if (!part.isBlank()) {
+                        dimensions.add(Dimension.from(part));
+                    }
+                }
+            }
+        }
+        if (dimensions.isEmpty()) {
+            dimensions.add(Dimension.DAY);
+        }
+        return dimensions;
+    }
+
+    /**
+     * Recalcula o consolidado do zero a partir dos pedidos pagos. A tabela fica bloqueada para escrita durante o
+     * recálculo: mudanças de status concorrentes esperam e são aplicadas depois, sem contar em dobro.
+     *
+     * @return quantidade de linhas geradas
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE sales_daily_rollup IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM sales_daily_rollup");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Consolidado de vendas recalculado: {} linhas", rows);
+        return rows;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,64 @@
+package com.artilheiro.store.service.catalog;
+
+import com.artilheiro.store.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cópia imutável de um produto ativo mantida no snapshot do catálogo.
+ * Desacoplada da entidade JPA para poder ser compartilhada entre requisições sem risco de alteração.
+ */
+public record CatalogEntry(
+        UUID id,
+        String name,
+        String team,
+        String liga,
+        String category,
+        BigDecimal price,
+        BigDecimal promoPrice,
+        List<String> images,
+        Map<String, Integer> sizes,
+        boolean freteGratis,
+        LocalDateTime createdAt,
+        long version,
+        LocalDateTime lastModified) {
+
+    public static CatalogEntry from(Product product) {
+        List<String> images = product.getImages() != null ? List.copyOf(product.getImages()) : List.of();
+        // LinkedHashMap preserva a ordem dos tamanhos (P, M, G, GG) como veio do banco
+        Map<String, Integer> sizes = product.getSizes() != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(product.getSizes()))
+                : Map.of();
+        return new CatalogEntry(
+                product.getId(),
+                product.getName(),
+                product.getTeam(),
+                product.getLiga(),
+                product.getCategory(),
+                product.getPrice(),
+                product.getPromoPrice(),
+                images,
+                sizes,
+                product.getFreteGratis() != null && product.getFreteGratis(),
+                product.getCreatedAt(),
+                product.getVersion() != null ? product.getVersion() : 0L,
+                product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt());
+    }
+
+    /** Preço cobrado na vitrine: o promocional, quando houver (mesma regra do COALESCE(promo_price, price) no banco). */
+    public BigDecimal effectivePrice() {
+        return promoPrice != null ? promoPrice : price;
+    }
+
+    /** Normaliza valores de filtro da mesma forma que a comparação case-insensitive do banco. */
+    static String key(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,17 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.Map;
+
+/**
+ * Contagens de facetas do catálogo (rótulo → quantidade de produtos ativos), em ordem decrescente de quantidade.
+ *
+ * @param total quantidade de produtos que atendem a todos os filtros
+ */
+public record CatalogFacets(
+        int total,
+        Map<String, Integer> categories,
+        Map<String, Integer> teams,
+        Map<String, Integer> ligas,
+        Map<String, Integer> sizes,
+        Map<String, Integer> priceBands) {
+}
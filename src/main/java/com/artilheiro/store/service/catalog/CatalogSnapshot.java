@@ -0,0 +1,209 @@
+package com.artilheiro.store.service.catalog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Snapshot imutável dos produtos ativos, com bitmaps por categoria, time, liga, tamanho, disponibilidade e faixa
+ * de preço ({@link ProductFilterIndex}) sobre o ordinal de cada produto (posição na ordem de mais recentes).
+ * Nunca é alterado depois de construído: mudanças geram um novo snapshot, trocado atomicamente em {@link ProductCatalog}.
+ * Carrega a versão do catálogo ({@code catalog_state}) que o seu conteúdo reflete.
+ */
+public final class CatalogSnapshot {
+
+    static final Comparator<CatalogEntry> NEWEST_FIRST = Comparator
+            .comparing(CatalogEntry::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(CatalogEntry::id, Comparator.reverseOrder());
+
+    static final Comparator<CatalogEntry> PRICE_ASCENDING = Comparator
+            .comparing(CatalogEntry::effectivePrice, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(CatalogEntry::id);
+
+    static final Comparator<CatalogEntry> NAME_ASCENDING = Comparator
+            .comparing((CatalogEntry e) -> CatalogEntry.key(e.name()))
+            .thenComparing(CatalogEntry::id);
+
+    private final List<CatalogEntry> entries;
+    private final long version;
+    private final LocalDateTime lastModified;
+    /** Todos os produtos já ordenados por cada ordenação (exceto relevância, que depende da busca). */
+    private final Map<ProductSort, List<CatalogEntry>> sorted = new EnumMap<>(ProductSort.class);
+    private final Map<UUID, CatalogEntry> byId;
+    private final Map<UUID, Integer> ordinals;
+    private final ProductFilterIndex filterIndex;
+
+    private CatalogSnapshot(List<CatalogEntry> entries, long version, LocalDateTime lastModified) {
+        this.entries = entries;
+        this.version = version;
+        this.lastModified = lastModified;
+        Map<UUID, CatalogEntry> ids = new HashMap<>(entries.size() * 2);
+        Map<UUID, Integer> positions = new HashMap<>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            ids.put(entries.get(i).id(), entries.get(i));
+            positions.put(entries.get(i).id(), i);
+        }
+        this.byId = ids;
+        this.ordinals = positions;
+        this.filterIndex = new ProductFilterIndex(entries);
+        this.sorted.put(ProductSort.NEWEST, entries);
+        for (ProductSort sort : List.of(ProductSort.PRICE_ASC, ProductSort.PRICE_DESC, ProductSort.NAME)) {
+            List<CatalogEntry> copy = new ArrayList<>(entries);
+            copy.sort(order(sort, e -> 0));
+            this.sorted.put(sort, List.copyOf(copy));
+        }
+    }
+
+    /**
+     * Ordem total de cada ordenação; sempre desempata pelo id, de modo que a posição de um cursor seja única.
+     *
+     * @param score pontuação de relevância (usada apenas em {@link ProductSort#RELEVANCE})
+     */
+    static Comparator<CatalogEntry> order(ProductSort sort, ToIntFunction<CatalogEntry> score) {
+        return switch (sort) {
+            case NEWEST -> NEWEST_FIRST;
+            case PRICE_ASC -> PRICE_ASCENDING;
+            case PRICE_DESC -> PRICE_ASCENDING.reversed();
+            case NAME -> NAME_ASCENDING;
+            case RELEVANCE -> Comparator.comparingInt(score).reversed().thenComparing(NEWEST_FIRST);
+        };
+    }
+
+    /** Monta um snapshot a partir dos produtos ativos (ordem: mais recentes primeiro). */
+    public static CatalogSnapshot of(Collection<CatalogEntry> activeEntries, long version, LocalDateTime lastModified) {
+        List<CatalogEntry> sorted = new ArrayList<>(activeEntries);
+        sorted.sort(NEWEST_FIRST);
+        return new CatalogSnapshot(List.copyOf(sorted), version, lastModified);
+    }
+
+    /** Novo snapshot, na versão informada, com o produto incluído ou substituído. */
+    public CatalogSnapshot with(CatalogEntry entry, long version, LocalDateTime lastModified) {
+        return with(List.of(entry), version, lastModified);
+    }
+
+    /** Novo snapshot, na versão informada, com os produtos incluídos ou substituídos. */
+    public CatalogSnapshot with(Collection<CatalogEntry> changed, long version, LocalDateTime lastModified) {
+        Map<UUID, CatalogEntry> replacements = new HashMap<>(changed.size() * 2);
+        changed.forEach(entry -> replacements.put(entry.id(), entry));
+        List<CatalogEntry> next = new ArrayList<>(entries.size() + changed.size());
+        for (CatalogEntry e : entries) {
+            if (!replacements.containsKey(e.id())) {
+                next.add(e);
+            }
+        }
+        next.addAll(replacements.values());
+        return of(next, version, lastModified);
+    }
+
+    /** Novo snapshot, na versão informada, sem o produto (ex.: desativado). */
+    public CatalogSnapshot without(UUID id, long version, LocalDateTime lastModified) {
+        List<CatalogEntry> next = new ArrayList<>(entries.size());
+        for (CatalogEntry e : entries) {
+            if (!e.id().equals(id)) {
+                next.add(e);
+            }
+        }
+        return new CatalogSnapshot(List.copyOf(next), version, lastModified);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public LocalDateTime lastModified() {
+        return lastModified;
+    }
+
+    public Optional<CatalogEntry> get(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public List<CatalogEntry> all() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Produtos que satisfazem a expressão, na ordenação pedida (exceto relevância, que depende da busca).
+     * Sem filtros, devolve a lista pré-ordenada.
+     */
+    public List<CatalogEntry> find(FilterExpression expression, ProductSort sort) {
+        if (sort == ProductSort.RELEVANCE) {
+            throw new IllegalArgumentException("Ordenação por relevância exige busca");
+        }
+        if (isAll(expression)) {
+            return sorted.get(sort);
+        }
+        List<CatalogEntry> result = materialize(filterIndex.evaluate(expression));
+        if (sort != ProductSort.NEWEST && result.size() > 1) {
+            result.sort(order(sort, e -> 0));
+        }
+        return result;
+    }
+
+    /**
+     * Ordinais dos produtos que satisfazem a expressão e, se houver busca, estão entre os encontrados.
+     *
+     * @param searchMatches ids encontrados pela busca, ou null quando não há termo de busca
+     */
+    public OrdinalBitmap select(FilterExpression expression, Collection<UUID> searchMatches) {
+        OrdinalBitmap filtered = filterIndex.evaluate(expression);
+        return searchMatches == null ? filtered : filtered.and(toBitmap(searchMatches));
+    }
+
+    /** Produtos dos ordinais informados, na ordem dos ordinais (mais recentes primeiro). */
+    public List<CatalogEntry> materialize(OrdinalBitmap selected) {
+        List<CatalogEntry> result = new ArrayList<>(selected.cardinality());
+        selected.forEach(ordinal -> result.add(entries.get(ordinal)));
+        return result;
+    }
+
+    /**
+     * Contagens por categoria, time, liga, tamanho em estoque e faixa de preço, só com operações de bitmap.
+     * Cada faceta ignora o próprio filtro (ex.: com team=Flamengo, a faceta de times mostra as alternativas),
+     * enquanto o total respeita todos os filtros.
+     *
+     * @param searchMatches ids encontrados pela busca, ou null quando não há termo de busca
+     */
+    public CatalogFacets facets(ProductFilter filter, Collection<UUID> searchMatches) {
+        OrdinalBitmap base = searchMatches == null ? filterIndex.all() : toBitmap(searchMatches);
+        return new CatalogFacets(
+                base.intersectionSize(filterIndex.evaluate(filter.toExpression())),
+                facet(FilterAttribute.CATEGORY, filter, base),
+                facet(FilterAttribute.TEAM, filter, base),
+                facet(FilterAttribute.LIGA, filter, base),
+                facet(FilterAttribute.SIZE, filter, base),
+                facet(FilterAttribute.PRICE_BAND, filter, base));
+    }
+
+    private Map<String, Integer> facet(FilterAttribute attribute, ProductFilter filter, OrdinalBitmap base) {
+        return filterIndex.counts(attribute, base.and(filterIndex.evaluate(filter.toExpression(attribute))));
+    }
+
+    private OrdinalBitmap toBitmap(Collection<UUID> ids) {
+        int[] selected = new int[ids.size()];
+        int count = 0;
+        for (UUID id : ids) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) selected[count++] = ordinal;
+        }
+        Arrays.sort(selected, 0, count);
+        return OrdinalBitmap.ofSorted(entries.size(), selected, count);
+    }
+
+    private static boolean isAll(FilterExpression expression) {
+        return expression instanceof FilterExpression.And and && and.operands().isEmpty();
+    }
+}
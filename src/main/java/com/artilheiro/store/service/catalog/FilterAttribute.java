@@ -0,0 +1,41 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Atributos indexados em bitmaps pelo {@link ProductFilterIndex}. Cada produto tem zero ou mais valores por atributo.
+ */
+public enum FilterAttribute {
+
+    CATEGORY(entry -> List.of(entry.category())),
+    TEAM(entry -> List.of(entry.team())),
+    LIGA(entry -> List.of(entry.liga())),
+    /** Tamanhos com estoque. */
+    SIZE(FilterAttribute::sizesInStock),
+    /** {@link #IN_STOCK} quando há estoque em algum tamanho. */
+    AVAILABILITY(entry -> sizesInStock(entry).isEmpty() ? List.of() : List.of(FilterAttribute.IN_STOCK)),
+    /** Faixa do preço efetivo (ver {@link PriceBand}). */
+    PRICE_BAND(entry -> entry.effectivePrice() != null ? List.of(PriceBand.of(entry.effectivePrice()).param()) : List.of());
+
+    public static final String IN_STOCK = "in_stock";
+
+    private final Function<CatalogEntry, List<String>> values;
+
+    FilterAttribute(Function<CatalogEntry, List<String>> values) {
+        this.values = values;
+    }
+
+    List<String> valuesOf(CatalogEntry entry) {
+        return values.apply(entry);
+    }
+
+    private static List<String> sizesInStock(CatalogEntry entry) {
+        List<String> sizes = new ArrayList<>(entry.sizes().size());
+        entry.sizes().forEach((size, quantity) -> {
+            if (quantity != null && quantity > 0) sizes.add(size);
+        });
+        return sizes;
+    }
+}
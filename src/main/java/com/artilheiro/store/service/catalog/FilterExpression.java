@@ -0,0 +1,51 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.List;
+
+/**
+ * Expressão de filtro sobre os atributos indexados do catálogo, avaliada por {@link ProductFilterIndex}
+ * com operações de bitmap (AND/OR/NOT) em vez de predicados por produto.
+ */
+public sealed interface FilterExpression {
+
+    /** Produtos com o valor informado no atributo (valor comparado pela chave normalizada). */
+    record Term(FilterAttribute attribute, String value) implements FilterExpression {
+    }
+
+    /** Interseção; sem operandos, casa com todo o catálogo. */
+    record And(List<FilterExpression> operands) implements FilterExpression {
+        public And {
+            operands = List.copyOf(operands);
+        }
+    }
+
+    /** União; sem operandos, não casa com nada. */
+    record Or(List<FilterExpression> operands) implements FilterExpression {
+        public Or {
+            operands = List.copyOf(operands);
+        }
+    }
+
+    record Not(FilterExpression operand) implements FilterExpression {
+    }
+
+    static FilterExpression term(FilterAttribute attribute, String value) {
+        return new Term(attribute, value);
+    }
+
+    static FilterExpression and(List<FilterExpression> operands) {
+        return operands.size() == 1 ? operands.get(0) : new And(operands);
+    }
+
+    static FilterExpression or(List<FilterExpression> operands) {
+        return operands.size() == 1 ? operands.get(0) : new Or(operands);
+    }
+
+    static FilterExpression not(FilterExpression operand) {
+        return new Not(operand);
+    }
+
+    static FilterExpression all() {
+        return new And(List.of());
+    }
+}
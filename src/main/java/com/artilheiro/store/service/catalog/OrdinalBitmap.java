@@ -0,0 +1,253 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto imutável de ordinais de produto (0..universe-1) com representação compactada.
+ * <p>
+ * Conjuntos esparsos (a maioria dos valores de time ou liga) guardam só os ordinais, ordenados, em um {@code int[]};
+ * conjuntos densos (ex.: categoria "camisa", "em estoque") usam um bitmap de {@code long[]}. A representação é
+ * escolhida a cada operação pelo que ocupa menos memória: um ordinal esparso custa 32 bits, o bitmap custa 1 bit
+ * por produto do catálogo.
+ */
+public final class OrdinalBitmap {
+
+    /** Abaixo de 1 ordinal a cada 32 posições, a lista ordenada é menor que o bitmap. */
+    private static final int SPARSE_DENSITY = 32;
+
+    private final int universe;
+    private final int[] sparse;
+    private final long[] words;
+    private final int cardinality;
+
+    private OrdinalBitmap(int universe, int[] sparse, long[] words, int cardinality) {
+        this.universe = universe;
+        this.sparse = sparse;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    public static OrdinalBitmap empty(int universe) {
+        return new OrdinalBitmap(universe, new int[0], null, 0);
+    }
+
+    public static OrdinalBitmap full(int universe) {
+        long[] words = new long[wordCount(universe)];
+        Arrays.fill(words, -1L);
+        clearTail(words, universe);
+        return fromWords(universe, words);
+    }
+
+    /** @param ordinals ordinais em ordem crescente e sem repetição */
+    public static OrdinalBitmap ofSorted(int universe, int[] ordinals, int count) {
+        if (isSparse(universe, count)) {
+            return new OrdinalBitmap(universe, Arrays.copyOf(ordinals, count), null, count);
+        }
+        long[] words = new long[wordCount(universe)];
+        for (int i = 0; i < count; i++) {
+            words[ordinals[i] >>> 6] |= 1L << ordinals[i];
+        }
+        return new OrdinalBitmap(universe, null, words, count);
+    }
+
+    public int universe() {
+        return universe;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int ordinal) {
+        if (ordinal < 0 || ordinal >= universe) return false;
+        if (sparse != null) {
+            return Arrays.binarySearch(sparse, ordinal) >= 0;
+        }
+        return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public OrdinalBitmap and(OrdinalBitmap other) {
+        if (isEmpty() || other.isEmpty()) return empty(universe);
+        if (sparse != null && other.sparse != null) {
+            return intersectSorted(sparse, other.sparse);
+        }
+        if (sparse != null || other.sparse != null) {
+            // esparso ∩ denso: percorre só os ordinais do lado esparso
+            int[] candidates = sparse != null ? sparse : other.sparse;
+            OrdinalBitmap dense = sparse != null ? other : this;
+            int[] result = new int[candidates.length];
+            int count = 0;
+            for (int ordinal : candidates) {
+                if ((dense.words[ordinal >>> 6] & (1L << ordinal)) != 0) result[count++] = ordinal;
+            }
+            return ofSorted(universe, result, count);
+        }
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return fromWords(universe, result);
+    }
+
+    public OrdinalBitmap or(OrdinalBitmap other) {
+        if (isEmpty()) return other;
+        if (other.isEmpty()) return this;
+        if (sparse != null && other.sparse != null) {
+            return unionSorted(sparse, other.sparse);
+        }
+        long[] result = toWords();
+        if (other.sparse != null) {
+            for (int ordinal : other.sparse) result[ordinal >>> 6] |= 1L << ordinal;
+        } else {
+            for (int i = 0; i < result.length; i++) result[i] |= other.words[i];
+        }
+        return fromWords(universe, result);
+    }
+
+    /** Complemento dentro do universo (produtos que não estão no conjunto). */
+    public OrdinalBitmap not() {
+        long[] result = toWords();
+        for (int i = 0; i < result.length; i++) result[i] = ~result[i];
+        clearTail(result, universe);
+        return fromWords(universe, result);
+    }
+
+    /** Tamanho da interseção, sem materializar o resultado (usado nas contagens de facetas). */
+    public int intersectionSize(OrdinalBitmap other) {
+        if (isEmpty() || other.isEmpty()) return 0;
+        if (sparse != null || other.sparse != null) {
+            int[] candidates = sparse != null ? sparse : other.sparse;
+            OrdinalBitmap probe = sparse != null ? other : this;
+            int count = 0;
+            for (int ordinal : candidates) {
+                if (probe.contains(ordinal)) count++;
+            }
+            return count;
+        }
+        int count = 0;
+        for (int i = 0; i < words.length; i++) count += Long.bitCount(words[i] & other.words[i]);
+        return count;
+    }
+
+    /** Percorre os ordinais em ordem crescente. */
+    public void forEach(IntConsumer action) {
+        if (sparse != null) {
+            for (int ordinal : sparse) action.accept(ordinal);
+            return;
+        }
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /** Bytes ocupados pelos dados (para acompanhar a compressão). */
+    public long sizeInBytes() {
+        return sparse != null ? sparse.length * 4L : words.length * 8L;
+    }
+
+    /** Acumula ordinais em ordem crescente e gera o bitmap na representação adequada. */
+    public static final class Builder {
+
+        private final int universe;
+        private int[] ordinals = new int[8];
+        private int count;
+
+        public Builder(int universe) {
+            this.universe = universe;
+        }
+
+        public Builder add(int ordinal) {
+            if (count > 0 && ordinals[count - 1] >= ordinal) {
+                throw new IllegalArgumentException("Ordinais devem ser adicionados em ordem crescente");
+            }
+            if (count == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, count * 2);
+            }
+            ordinals[count++] = ordinal;
+            return this;
+        }
+
+        public OrdinalBitmap build() {
+            return ofSorted(universe, ordinals, count);
+        }
+    }
+
+    private OrdinalBitmap intersectSorted(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return ofSorted(universe, result, count);
+    }
+
+    private OrdinalBitmap unionSorted(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) result[count++] = a[i++];
+            else if (i == a.length || b[j] < a[i]) result[count++] = b[j++];
+            else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return ofSorted(universe, result, count);
+    }
+
+    private long[] toWords() {
+        if (words != null) return words.clone();
+        long[] result = new long[wordCount(universe)];
+        for (int ordinal : sparse) result[ordinal >>> 6] |= 1L << ordinal;
+        return result;
+    }
+
+    /** Usa o bitmap recebido, convertendo para a forma esparsa se ele ficou pouco preenchido. */
+    private static OrdinalBitmap fromWords(int universe, long[] words) {
+        int cardinality = 0;
+        for (long word : words) cardinality += Long.bitCount(word);
+        if (!isSparse(universe, cardinality)) {
+            return new OrdinalBitmap(universe, null, words, cardinality);
+        }
+        int[] ordinals = new int[cardinality];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                ordinals[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return new OrdinalBitmap(universe, ordinals, null, cardinality);
+    }
+
+    private static boolean isSparse(int universe, int cardinality) {
+        return cardinality * SPARSE_DENSITY <= universe;
+    }
+
+    private static int wordCount(int universe) {
+        return (universe + 63) >>> 6;
+    }
+
+    private static void clearTail(long[] words, int universe) {
+        if (words.length > 0 && (universe & 63) != 0) {
+            words[words.length - 1] &= -1L >>> (64 - (universe & 63));
+        }
+    }
+}
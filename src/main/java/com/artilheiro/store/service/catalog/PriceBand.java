@@ -0,0 +1,52 @@
+package com.artilheiro.store.service.catalog;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Faixas de preço da vitrine (parâmetro {@code priceBand}), sobre o preço efetivo (promocional, quando houver).
+ * Limite inferior inclusivo, superior exclusivo.
+ */
+public enum PriceBand {
+
+    UP_TO_100("ate_100", null, new BigDecimal("100")),
+    FROM_100_TO_200("100_200", new BigDecimal("100"), new BigDecimal("200")),
+    FROM_200_TO_300("200_300", new BigDecimal("200"), new BigDecimal("300")),
+    FROM_300("acima_300", new BigDecimal("300"), null);
+
+    private final String param;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceBand(String param, BigDecimal min, BigDecimal max) {
+        this.param = param;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String param() {
+        return param;
+    }
+
+    public static PriceBand of(BigDecimal price) {
+        for (PriceBand band : values()) {
+            if ((band.min == null || price.compareTo(band.min) >= 0) && (band.max == null || price.compareTo(band.max) < 0)) {
+                return band;
+            }
+        }
+        return FROM_300;
+    }
+
+    /**
+     * @throws IllegalArgumentException se o valor não for uma faixa conhecida
+     */
+    public static PriceBand fromParam(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (PriceBand band : values()) {
+            if (band.param.equals(normalized)) {
+                return band;
+            }
+        }
+        throw new IllegalArgumentException("Faixa de preço inválida: " + value + ". Use ate_100, 100_200, 200_300 ou acima_300.");
+    }
+}
@@ -0,0 +1,360 @@
+package com.artilheiro.store.service.catalog;
+
+import com.artilheiro.store.dto.CursorPage;
+import com.artilheiro.store.model.CatalogState;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.CatalogStateRepository;
+import com.artilheiro.store.repository.ProductRepository;
+import com.artilheiro.store.service.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catálogo de produtos ativos em memória para a vitrine (GET /api/products e GET /api/products/{id}).
+ * Leituras não acessam o banco: usam o snapshot atual, substituído atomicamente a cada mudança.
+ * <p>
+ * Toda alteração de produto incrementa a versão do catálogo ({@code catalog_state}) na mesma transação.
+ * O snapshot é atualizado após o commit de create/update nesta instância; periodicamente cada instância
+ * compara a versão do banco com a do seu snapshot e recarrega só quando outra instância alterou o catálogo.
+ * Baixas de estoque por pedidos só mudam a versão quando mudam os tamanhos disponíveis de algum produto; as
+ * quantidades exibidas ficam as da última mudança de versão (a compra confere o estoque no banco).
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final CatalogStateRepository catalogStateRepository;
+    private final TransactionTemplate loadTransaction;
+    private final TransactionTemplate versionTransaction;
+    /** Produtos com estoque alterado por pedidos desde a última verificação (ver {@link #onStockChanged}). */
+    private final Set<UUID> stockChanged = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final Object writeLock = new Object();
+
+    public ProductCatalog(ProductRepository productRepository, CatalogStateRepository catalogStateRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.catalogStateRepository = catalogStateRepository;
+        // Versão e produtos lidos na mesma foto do banco; transação própria porque a recarga também ocorre após commits
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.loadTransaction.setReadOnly(true);
+        this.versionTransaction = new TransactionTemplate(transactionManager);
+        this.versionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Incrementa a versão do catálogo. Deve ser chamado na transação que altera produtos: o lock da linha
+     * serializa alterações concorrentes (inclusive de outras instâncias) até o commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CatalogState nextVersion() {
+        LocalDateTime now = LocalDateTime.now();
+        CatalogState state = catalogStateRepository.findByIdForUpdate(CatalogState.SINGLETON_ID)
+                .orElseGet(() -> new CatalogState(CatalogState.SINGLETON_ID, 0L, now));
+        state.setVersion(state.getVersion() + 1);
+        state.setUpdatedAt(now);
+        return catalogStateRepository.save(state);
+    }
+
+    /** Snapshot atual (carrega do banco na primeira chamada, se ainda não carregado). */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (writeLock) {
+                if (snapshot.get() == null) {
+                    reload();
+                }
+                current = snapshot.get();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Produtos ativos que atendem ao filtro, na ordenação pedida. Os filtros são avaliados nos bitmaps do snapshot;
+     * com termo de busca, o resultado é cruzado com o índice invertido e a relevância desempata pelos mais recentes.
+     */
+    public List<CatalogEntry> find(ProductFilter filter, ProductSort sort) {
+        return find(filter, sort, scores(filter));
+    }
+
+    private List<CatalogEntry> find(ProductFilter filter, ProductSort sort, Map<UUID, Integer> scores) {
+        CatalogSnapshot current = current();
+        if (scores == null) {
+            return current.find(filter.toExpression(), sort);
+        }
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        List<CatalogEntry> result = current.materialize(current.select(filter.toExpression(), scores.keySet()));
+        result.sort(CatalogSnapshot.order(sort, e -> scores.getOrDefault(e.id(), 0)));
+        return result;
+    }
+
+    /**
+     * Página de até {@code limit} produtos a partir do cursor (exclusivo). A posição do cursor é encontrada por busca
+     * binária na lista ordenada, então páginas profundas não percorrem as anteriores.
+     *
+     * @param cursor cursor devolvido pela página anterior, ou null para a primeira página
+     * @throws IllegalArgumentException se o cursor for inválido ou de outra ordenação
+     */
+    public CursorPage<CatalogEntry> page(ProductFilter filter, ProductSort sort, String cursor, int limit) {
+        Map<UUID, Integer> scores = scores(filter);
+        List<CatalogEntry> ordered = find(filter, sort, scores);
+
+        int from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor, sort.param(), sort == ProductSort.RELEVANCE ? 3 : 2);
+            CatalogEntry probe = probe(sort, position);
+            int probeScore = sort == ProductSort.RELEVANCE ? parseInt(position.value(0)) : 0;
+            Comparator<CatalogEntry> order = CatalogSnapshot.order(sort,
+                    e -> e == probe ? probeScore : scores != null ? scores.getOrDefault(e.id(), 0) : 0);
+            from = firstAfter(ordered, probe, order);
+        }
+        int to = Math.min(from + limit, ordered.size());
+        List<CatalogEntry> items = ordered.subList(from, to);
+        String next = to < ordered.size()
+                ? cursorOf(items.get(items.size() - 1), sort, scores).encode()
+                : null;
+        return new CursorPage<>(items, next);
+    }
+
+    /** Contagens de facetas para os mesmos filtros de {@link #find} (busca inclusa). */
+    public CatalogFacets facets(ProductFilter filter) {
+        Map<UUID, Integer> scores = scores(filter);
+        return current().facets(filter, scores != null ? scores.keySet() : null);
+    }
+
+    /** Pontuação de relevância por produto, ou null quando não há termo de busca. */
+    private Map<UUID, Integer> scores(ProductFilter filter) {
+        return filter.hasSearch() ? searchIndex.search(filter.search()) : null;
+    }
+
+    /** Índice do primeiro item estritamente depois do cursor (a lista está ordenada por {@code order}). */
+    private static int firstAfter(List<CatalogEntry> ordered, CatalogEntry probe, Comparator<CatalogEntry> order) {
+        int low = 0;
+        int high = ordered.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(ordered.get(mid), probe) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static KeysetCursor cursorOf(CatalogEntry last, ProductSort sort, Map<UUID, Integer> scores) {
+        String id = last.id().toString();
+        String createdAt = last.createdAt() != null ? last.createdAt().toString() : "";
+        return switch (sort) {
+            case NEWEST -> KeysetCursor.of(sort.param(), createdAt, id);
+            case PRICE_ASC, PRICE_DESC -> KeysetCursor.of(sort.param(), last.effectivePrice().toPlainString(), id);
+            case NAME -> KeysetCursor.of(sort.param(), CatalogEntry.key(last.name()), id);
+            case RELEVANCE -> KeysetCursor.of(sort.param(),
+                    String.valueOf(scores != null ? scores.getOrDefault(last.id(), 0) : 0), createdAt, id);
+        };
+    }
+
+    /** Entrada fictícia com os valores do cursor, comparável com os itens do catálogo pela mesma ordenação. */
+    private static CatalogEntry probe(ProductSort sort, KeysetCursor cursor) {
+        try {
+            UUID id = UUID.fromString(cursor.value(cursor.values().size() - 1));
+            String name = "";
+            BigDecimal price = null;
+            LocalDateTime createdAt = null;
+            switch (sort) {
+                case NEWEST -> createdAt = parseDateTime(cursor.value(0));
+                case PRICE_ASC, PRICE_DESC -> price = new BigDecimal(cursor.value(0));
+                case NAME -> name = cursor.value(0);
+                case RELEVANCE -> createdAt = parseDateTime(cursor.value(1));
+            }
+            return new CatalogEntry(id, name, "", "", "", price, null, List.of(), Map.of(), false, createdAt, 0L, null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Não impede a subida da aplicação; o catálogo é carregado no primeiro acesso.
+            log.warn("Catálogo: falha ao carregar produtos na inicialização", e);
+        }
+    }
+
+    /**
+     * Consulta só a versão do catálogo no banco e recarrega se ela for diferente da do snapshot.
+     * Antes aplica as mudanças de estoque feitas por pedidos desta instância ({@link #applyStockChanges}).
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:10000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:10000}")
+    public void scheduledReload() {
+        try {
+            applyStockChanges();
+            CatalogSnapshot current = snapshot.get();
+            long version = catalogStateRepository.findVersionById(CatalogState.SINGLETON_ID).orElse(0L);
+            if (current == null || current.version() != version) {
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("Catálogo: falha ao recarregar produtos; mantendo snapshot atual", e);
+        }
+    }
+
+    /** Recarrega todos os produtos ativos do banco e troca o snapshot. */
+    public void reload() {
+        synchronized (writeLock) {
+            CatalogSnapshot loaded = loadTransaction.execute(status -> {
+                Optional<CatalogState> state = catalogStateRepository.findById(CatalogState.SINGLETON_ID);
+                List<CatalogEntry> entries = productRepository.findByActiveTrue().stream()
+                        .map(CatalogEntry::from)
+                        .toList();
+                return CatalogSnapshot.of(entries,
+                        state.map(CatalogState::getVersion).orElse(0L),
+                        state.map(CatalogState::getUpdatedAt).orElse(null));
+            });
+            searchIndex.rebuild(loaded.all());
+            snapshot.set(loaded);
+            log.debug("Catálogo: {} produtos ativos carregados (versão {})", loaded.size(), loaded.version());
+        }
+    }
+
+    /**
+     * Estoque alterado por pedidos (reserva ou devolução), após o commit. Só anota os produtos: incrementar a versão
+     * aqui travaria a linha de {@code catalog_state} a cada compra; a próxima verificação periódica confere.
+     */
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        stockChanged.addAll(event.productIds());
+    }
+
+    /**
+     * Lê do banco os produtos anotados por {@link #onStockChanged} e, se algum passou a ter (ou deixou de ter)
+     * tamanhos em estoque, incrementa a versão uma vez e substitui só esses produtos no snapshot; as demais
+     * instâncias recarregam ao ver a versão nova. Mudança só de quantidade não altera a versão, então não descarta
+     * as listagens em cache nem os ETags a cada compra.
+     */
+    void applyStockChanges() {
+        if (stockChanged.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = new HashSet<>(stockChanged);
+        stockChanged.removeAll(ids);
+        try {
+            CatalogSnapshot current = snapshot.get();
+            if (current == null) {
+                return; // ainda não carregado: o primeiro acesso lê o estoque já commitado
+            }
+            List<Product> products = loadTransaction.execute(status -> productRepository.findAllById(ids));
+            List<CatalogEntry> changed = new ArrayList<>();
+            for (Product product : products) {
+                CatalogEntry entry = CatalogEntry.from(product);
+                boolean availabilityChanged = current.get(product.getId())
+                        .map(previous -> !sizesInStock(previous).equals(sizesInStock(entry)))
+                        .orElse(false);
+                if (availabilityChanged && product.getActive() != null && product.getActive()) {
+                    changed.add(entry);
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            CatalogState state = versionTransaction.execute(status -> nextVersion());
+            synchronized (writeLock) {
+                CatalogSnapshot latest = snapshot.get();
+                if (latest == null || state.getVersion() <= latest.version()) {
+                    return; // já refletida por uma recarga posterior ao commit
+                }
+                if (state.getVersion() != latest.version() + 1) {
+                    reload();
+                    return;
+                }
+                snapshot.set(latest.with(changed, state.getVersion(), state.getUpdatedAt()));
+            }
+        } catch (RuntimeException e) {
+            stockChanged.addAll(ids);
+            throw e;
+        }
+    }
+
+    private static Set<String> sizesInStock(CatalogEntry entry) {
+        return new HashSet<>(FilterAttribute.SIZE.valuesOf(entry));
+    }
+
+    /**
+     * Aplica a mudança de um produto após o commit (ou imediatamente, se não houver transação).
+     * Produtos inativos saem do snapshot. Se houver versões intermediárias que este snapshot não viu
+     * (alterações de outra instância), recarrega tudo para que a versão continue correspondendo ao conteúdo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        CatalogState state = event.catalogState();
+        synchronized (writeLock) {
+            CatalogSnapshot current = snapshot.get();
+            if (current == null) {
+                return; // ainda não carregado: o primeiro acesso lê o estado já commitado
+            }
+            if (state.getVersion() <= current.version()) {
+                return; // já refletida por uma recarga posterior ao commit
+            }
+            if (state.getVersion() != current.version() + 1) {
+                reload();
+                return;
+            }
+            boolean active = product.getActive() != null && product.getActive();
+            if (active) {
+                CatalogEntry entry = CatalogEntry.from(product);
+                searchIndex.index(entry);
+                snapshot.set(current.with(entry, state.getVersion(), state.getUpdatedAt()));
+            } else {
+                searchIndex.remove(product.getId());
+                snapshot.set(current.without(product.getId(), state.getVersion(), state.getUpdatedAt()));
+            }
+        }
+    }
+}
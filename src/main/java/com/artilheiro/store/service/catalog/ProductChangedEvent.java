@@ -0,0 +1,13 @@
+package com.artilheiro.store.service.catalog;
+
+import com.artilheiro.store.model.CatalogState;
+import com.artilheiro.store.model.Product;
+
+/**
+ * Publicado por {@link com.artilheiro.store.service.ProductService} quando um produto é criado ou atualizado.
+ * O catálogo em memória só aplica a mudança depois do commit.
+ *
+ * @param catalogState versão do catálogo gerada pela alteração (ver {@link ProductCatalog#nextVersion()})
+ */
+public record ProductChangedEvent(Product product, CatalogState catalogState) {
+}
@@ -0,0 +1,100 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Filtros da vitrine já normalizados: categoria, time e liga (chave case-insensitive), termos de busca,
+ * tamanhos com estoque (OR entre eles), disponibilidade e faixas de preço (OR entre elas).
+ * Filtros nulos ou vazios são ignorados. Por ser normalizado, também serve de chave de cache.
+ */
+public record ProductFilter(
+        String category,
+        String team,
+        String liga,
+        String search,
+        List<String> sizes,
+        Boolean inStock,
+        List<PriceBand> priceBands) {
+
+    public ProductFilter {
+        category = normalizeKey(category);
+        team = normalizeKey(team);
+        liga = normalizeKey(liga);
+        search = search != null ? String.join(" ", ProductSearchIndex.tokenize(search)) : "";
+        sizes = sizes != null ? normalizeKeys(sizes) : List.of();
+        priceBands = priceBands != null ? List.copyOf(new TreeSet<>(priceBands)) : List.of();
+    }
+
+    public static ProductFilter of(String category, String team, String liga, String search) {
+        return new ProductFilter(category, team, liga, search, null, null, null);
+    }
+
+    /**
+     * @param priceBands valores do parâmetro priceBand (ex.: "ate_100", "100_200")
+     * @throws IllegalArgumentException se alguma faixa de preço for inválida
+     */
+    public static ProductFilter of(String category, String team, String liga, String search,
+                                   List<String> sizes, Boolean inStock, List<String> priceBands) {
+        List<PriceBand> bands = new ArrayList<>();
+        if (priceBands != null) {
+            for (String band : priceBands) {
+                if (band != null && !band.isBlank()) bands.add(PriceBand.fromParam(band));
+            }
+        }
+        return new ProductFilter(category, team, liga, search, sizes, inStock, bands);
+    }
+
+    public boolean hasSearch() {
+        return !search.isEmpty();
+    }
+
+    public FilterExpression toExpression() {
+        return toExpression(null);
+    }
+
+    /**
+     * Expressão com todos os filtros, exceto o do atributo informado (para facetas que mostram alternativas).
+     */
+    public FilterExpression toExpression(FilterAttribute excluded) {
+        List<FilterExpression> operands = new ArrayList<>();
+        if (category != null && excluded != FilterAttribute.CATEGORY) {
+            operands.add(FilterExpression.term(FilterAttribute.CATEGORY, category));
+        }
+        if (team != null && excluded != FilterAttribute.TEAM) {
+            operands.add(FilterExpression.term(FilterAttribute.TEAM, team));
+        }
+        if (liga != null && excluded != FilterAttribute.LIGA) {
+            operands.add(FilterExpression.term(FilterAttribute.LIGA, liga));
+        }
+        if (!sizes.isEmpty() && excluded != FilterAttribute.SIZE) {
+            operands.add(FilterExpression.or(sizes.stream()
+                    .map(size -> FilterExpression.term(FilterAttribute.SIZE, size))
+                    .toList()));
+        }
+        if (inStock != null && excluded != FilterAttribute.AVAILABILITY) {
+            FilterExpression available = FilterExpression.term(FilterAttribute.AVAILABILITY, FilterAttribute.IN_STOCK);
+            operands.add(inStock ? available : FilterExpression.not(available));
+        }
+        if (!priceBands.isEmpty() && excluded != FilterAttribute.PRICE_BAND) {
+            operands.add(FilterExpression.or(priceBands.stream()
+                    .map(band -> FilterExpression.term(FilterAttribute.PRICE_BAND, band.param()))
+                    .toList()));
+        }
+        return FilterExpression.and(operands);
+    }
+
+    private static String normalizeKey(String value) {
+        return value != null && !value.isBlank() ? CatalogEntry.key(value) : null;
+    }
+
+    private static List<String> normalizeKeys(List<String> values) {
+        TreeSet<String> keys = new TreeSet<>();
+        for (String value : values) {
+            String key = normalizeKey(value);
+            if (key != null) keys.add(key);
+        }
+        return List.copyOf(keys);
+    }
+}
@@ -0,0 +1,106 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bitmaps compactados ({@link OrdinalBitmap}) por valor de cada {@link FilterAttribute}, sobre o ordinal do produto
+ * no snapshot. Avalia expressões de filtro arbitrárias (AND/OR/NOT) só com operações de bitmap e calcula contagens
+ * de facetas. Imutável: reconstruído junto com cada {@link CatalogSnapshot}.
+ */
+final class ProductFilterIndex {
+
+    private final int universe;
+    private final Map<FilterAttribute, Map<String, OrdinalBitmap>> bitmaps = new EnumMap<>(FilterAttribute.class);
+    /** Rótulo de exibição por valor (do produto mais recente que o usa). */
+    private final Map<FilterAttribute, Map<String, String>> labels = new EnumMap<>(FilterAttribute.class);
+
+    /** @param entries produtos na ordem dos ordinais */
+    ProductFilterIndex(List<CatalogEntry> entries) {
+        this.universe = entries.size();
+        for (FilterAttribute attribute : FilterAttribute.values()) {
+            Map<String, OrdinalBitmap.Builder> builders = new HashMap<>();
+            Map<String, String> attributeLabels = new HashMap<>();
+            Set<String> productKeys = new HashSet<>();
+            for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+                productKeys.clear();
+                for (String value : attribute.valuesOf(entries.get(ordinal))) {
+                    if (value == null || value.isBlank()) continue;
+                    String key = CatalogEntry.key(value);
+                    // Um produto pode repetir o valor com grafias diferentes (ex.: tamanhos "P" e "p")
+                    if (!productKeys.add(key)) continue;
+                    builders.computeIfAbsent(key, k -> new OrdinalBitmap.Builder(universe)).add(ordinal);
+                    attributeLabels.putIfAbsent(key, value.trim());
+                }
+            }
+            Map<String, OrdinalBitmap> attributeBitmaps = new HashMap<>(builders.size() * 2);
+            builders.forEach((key, builder) -> attributeBitmaps.put(key, builder.build()));
+            bitmaps.put(attribute, attributeBitmaps);
+            labels.put(attribute, attributeLabels);
+        }
+    }
+
+    int universe() {
+        return universe;
+    }
+
+    OrdinalBitmap all() {
+        return OrdinalBitmap.full(universe);
+    }
+
+    /** Ordinais dos produtos que satisfazem a expressão. */
+    OrdinalBitmap evaluate(FilterExpression expression) {
+        if (expression instanceof FilterExpression.Term term) {
+            OrdinalBitmap matches = bitmaps.get(term.attribute()).get(CatalogEntry.key(term.value()));
+            return matches != null ? matches : OrdinalBitmap.empty(universe);
+        }
+        if (expression instanceof FilterExpression.And and) {
+            List<OrdinalBitmap> operands = new ArrayList<>(and.operands().size());
+            for (FilterExpression operand : and.operands()) {
+                OrdinalBitmap result = evaluate(operand);
+                if (result.isEmpty()) return result;
+                operands.add(result);
+            }
+            if (operands.isEmpty()) return all();
+            // Do menor para o maior: as interseções encolhem (e ficam esparsas) mais cedo
+            operands.sort(Comparator.comparingInt(OrdinalBitmap::cardinality));
+            OrdinalBitmap result = operands.get(0);
+            for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+                result = result.and(operands.get(i));
+            }
+            return result;
+        }
+        if (expression instanceof FilterExpression.Or or) {
+            OrdinalBitmap result = OrdinalBitmap.empty(universe);
+            for (FilterExpression operand : or.operands()) {
+                result = result.or(evaluate(operand));
+            }
+            return result;
+        }
+        if (expression instanceof FilterExpression.Not not) {
+            return evaluate(not.operand()).not();
+        }
+        throw new IllegalArgumentException("Expressão de filtro não suportada: " + expression);
+    }
+
+    /** Contagem por rótulo dentro do conjunto, da maior para a menor (valores sem produtos ficam de fora). */
+    Map<String, Integer> counts(FilterAttribute attribute, OrdinalBitmap within) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        Map<String, String> attributeLabels = labels.get(attribute);
+        for (Map.Entry<String, OrdinalBitmap> value : bitmaps.get(attribute).entrySet()) {
+            int count = value.getValue().intersectionSize(within);
+            if (count > 0) counts.add(Map.entry(attributeLabels.get(value.getKey()), count));
+        }
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        counts.forEach(count -> result.put(count.getKey(), count.getValue()));
+        return result;
+    }
+}
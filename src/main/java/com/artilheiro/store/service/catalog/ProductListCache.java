@@ -0,0 +1,105 @@
+package com.artilheiro.store.service.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das respostas de GET /api/products já serializadas (JSON UTF-8 e, quando compensa, gzip).
+ * Um acerto devolve os bytes prontos para escrever na resposta, sem montar DTOs nem passar pelo Jackson.
+ * <p>
+ * A chave inclui a versão do snapshot do catálogo: qualquer alteração de produto muda a versão, e a primeira
+ * requisição na versão nova descarta as entradas anteriores. Limitado pelo total de bytes, com despejo LRU.
+ */
+@Component
+public class ProductListCache {
+
+    /** Abaixo disso o gzip quase não reduz e só custa CPU no cliente. */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Body> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private long version = Long.MIN_VALUE;
+
+    public ProductListCache(@Value("${app.catalog.response-cache-max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Resposta serializada: corpo JSON, versão gzip (null se pequena demais) e cursor da próxima página. */
+    public record Body(byte[] json, byte[] gzip, String nextCursor) {
+
+        public static Body of(byte[] json, String nextCursor) {
+            return new Body(json, json.length >= GZIP_MIN_BYTES ? compress(json) : null, nextCursor);
+        }
+
+        long size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    /**
+     * Chave da listagem: o {@link ProductFilter} já é normalizado, então variações de maiúsculas, acentos e espaços
+     * caem na mesma entrada. {@code limit} é null na listagem completa (sem paginação).
+     */
+    public record Key(long version, ProductFilter filter, ProductSort sort, String cursor, Integer limit) {
+
+        public Key {
+            cursor = cursor != null ? cursor.trim() : "";
+        }
+    }
+
+    /** Devolve a resposta em cache ou monta com {@code render} (ver {@link Body#of}) e guarda, se couber. */
+    public Body get(Key key, Supplier<Body> render) {
+        synchronized (this) {
+            if (key.version() > version) {
+                // Catálogo mudou: entradas de versões anteriores nunca mais seriam usadas
+                entries.clear();
+                totalBytes = 0;
+                version = key.version();
+            }
+            Body cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Body body = render.get();
+        put(key, body);
+        return body;
+    }
+
+    private synchronized void put(Key key, Body body) {
+        // Requisição ainda na versão antiga ou resposta grande demais para o cache: só devolve
+        if (key.version() != version || body.size() > maxBytes / 4) {
+            return;
+        }
+        Body previous = entries.put(key, body);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += body.size();
+        Iterator<Map.Entry<Key, Body>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
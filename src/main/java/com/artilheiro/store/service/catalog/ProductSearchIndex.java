@@ -0,0 +1,204 @@
+package com.artilheiro.store.service.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de busca dos produtos ativos (nome, time, liga e categoria).
+ * <p>
+ * Tokens são normalizados sem acento e em minúsculas ("Brasileirão" → "brasileirao"). Cada termo da busca casa
+ * com tokens iguais ou que começam com ele (prefixo); vários termos são combinados com AND. Cada resultado recebe
+ * uma pontuação de relevância: peso do campo (nome &gt; time &gt; liga/categoria), com bônus para token exato.
+ * <p>
+ * Mantido incrementalmente por {@link ProductCatalog} a cada produto criado/atualizado.
+ */
+public class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int WEIGHT_NAME = 3;
+    private static final int WEIGHT_TEAM = 2;
+    private static final int WEIGHT_OTHER = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** token → (produto → peso do campo onde o token aparece). Ordenado para busca por prefixo. */
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+    /** produto → (token → peso), para remoção incremental e para conferir os demais termos da busca. */
+    private final Map<UUID, Map<String, Integer>> documents = new HashMap<>();
+
+    /** Reconstrói o índice do zero. */
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (CatalogEntry entry : entries) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexa (ou reindexa) um produto. */
+    public void index(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(entry.id());
+            add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os produtos que contêm todos os termos da consulta.
+     *
+     * @return pontuação de relevância por produto (maior = mais relevante); vazio se a consulta não tiver termos
+     */
+    public Map<UUID, Integer> search(String query) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return Map.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Parte do termo mais seletivo e confere os demais apenas nos candidatos
+            String driver = null;
+            int driverSize = Integer.MAX_VALUE;
+            for (String term : terms) {
+                int size = 0;
+                for (Map<UUID, Integer> ids : matchingPostings(term).values()) {
+                    size += ids.size();
+                }
+                if (size == 0) {
+                    return Map.of();
+                }
+                if (size < driverSize) {
+                    driver = term;
+                    driverSize = size;
+                }
+            }
+
+            Map<UUID, Integer> scores = new HashMap<>();
+            for (Map.Entry<String, Map<UUID, Integer>> posting : matchingPostings(driver).entrySet()) {
+                for (Map.Entry<UUID, Integer> doc : posting.getValue().entrySet()) {
+                    scores.merge(doc.getKey(), score(posting.getKey(), doc.getValue(), driver), Math::max);
+                }
+            }
+            for (String term : terms) {
+                if (term.equals(driver)) continue;
+                scores.entrySet().removeIf(candidate -> {
+                    int termScore = bestScore(documents.get(candidate.getKey()), term);
+                    if (termScore == 0) {
+                        return true;
+                    }
+                    candidate.setValue(candidate.getValue() + termScore);
+                    return false;
+                });
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Remove acentos e converte para minúsculas (ex.: "São Paulo" → "sao paulo"). */
+    public static String normalize(String value) {
+        if (value == null) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String value) {
+        String normalized = normalize(value).trim();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void add(CatalogEntry entry) {
+        Map<String, Integer> tokens = new HashMap<>();
+        addField(tokens, entry.name(), WEIGHT_NAME);
+        addField(tokens, entry.team(), WEIGHT_TEAM);
+        addField(tokens, entry.liga(), WEIGHT_OTHER);
+        addField(tokens, entry.category(), WEIGHT_OTHER);
+        documents.put(entry.id(), tokens);
+        for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+            postings.computeIfAbsent(token.getKey(), k -> new HashMap<>()).put(entry.id(), token.getValue());
+        }
+    }
+
+    private static void addField(Map<String, Integer> tokens, String value, int weight) {
+        for (String token : tokenize(value)) {
+            tokens.merge(token, weight, Math::max);
+        }
+    }
+
+    private void removeInternal(UUID id) {
+        Map<String, Integer> tokens = documents.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens.keySet()) {
+            Map<UUID, Integer> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /** Tokens do dicionário iguais ao termo ou que começam com ele. */
+    private NavigableMap<String, Map<UUID, Integer>> matchingPostings(String term) {
+        return postings.subMap(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    private static int bestScore(Map<String, Integer> docTokens, String term) {
+        if (docTokens == null) return 0;
+        int best = 0;
+        for (Map.Entry<String, Integer> token : docTokens.entrySet()) {
+            best = Math.max(best, score(token.getKey(), token.getValue(), term));
+        }
+        return best;
+    }
+
+    private static int score(String token, int weight, String term) {
+        if (token.equals(term)) {
+            return weight * EXACT_MATCH_BONUS;
+        }
+        return token.startsWith(term) ? weight : 0;
+    }
+}
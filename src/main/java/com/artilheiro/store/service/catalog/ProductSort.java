@@ -0,0 +1,50 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.Locale;
+
+/**
+ * Ordenações disponíveis nas listagens de produtos (parâmetro {@code sort}).
+ * Toda ordenação desempata pelo id, formando a chave única usada na paginação por cursor.
+ */
+public enum ProductSort {
+
+    /** Mais recentes primeiro (created_at desc, id desc). */
+    NEWEST("newest"),
+    /** Menor preço efetivo (promo_price quando houver) primeiro. */
+    PRICE_ASC("price_asc"),
+    /** Maior preço efetivo primeiro. */
+    PRICE_DESC("price_desc"),
+    /** Nome em ordem alfabética. */
+    NAME("name"),
+    /** Relevância da busca (apenas com o parâmetro search). */
+    RELEVANCE("relevance");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String param() {
+        return param;
+    }
+
+    /**
+     * Converte o parâmetro da requisição. Sem valor, usa relevância quando há busca e mais recentes caso contrário.
+     *
+     * @throws IllegalArgumentException se o valor não for uma ordenação conhecida
+     */
+    public static ProductSort from(String value, boolean hasSearch) {
+        ProductSort fallback = hasSearch ? RELEVANCE : NEWEST;
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (ProductSort sort : values()) {
+            if (sort.param.equals(normalized)) {
+                return sort == RELEVANCE ? fallback : sort;
+            }
+        }
+        throw new IllegalArgumentException("Ordenação inválida: " + value + ". Use newest, price_asc, price_desc, name ou relevance.");
+    }
+}
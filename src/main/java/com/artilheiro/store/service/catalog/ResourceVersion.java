@@ -0,0 +1,33 @@
+package com.artilheiro.store.service.catalog;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validadores HTTP de um recurso do catálogo: ETag forte e Last-Modified (epoch millis, -1 se desconhecido).
+ * Calculados a partir do snapshot em memória, permitem responder 304 sem montar nem serializar o corpo.
+ */
+public record ResourceVersion(String etag, long lastModified) {
+
+    /** Listagens: mudam sempre que a versão do catálogo muda. */
+    public static ResourceVersion ofCatalog(CatalogSnapshot snapshot) {
+        return new ResourceVersion("\"c" + snapshot.version() + "\"", toEpochMillis(snapshot.lastModified()));
+    }
+
+    /** Produto individual: muda com a versão do próprio produto. */
+    public static ResourceVersion ofProduct(CatalogEntry entry) {
+        return new ResourceVersion("\"p" + entry.version() + "\"", toEpochMillis(entry.lastModified()));
+    }
+
+    /**
+     * A mesma versão na representação comprimida (gzip). Um ETag forte identifica uma representação, então o corpo
+     * gzip recebe um ETag próprio (ex.: {@code "c12-gzip"}) em vez de repetir o do JSON sem compressão.
+     */
+    public ResourceVersion gzip() {
+        return new ResourceVersion(etag.substring(0, etag.length() - 1) + "-gzip\"", lastModified);
+    }
+
+    private static long toEpochMillis(LocalDateTime value) {
+        return value != null ? value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.artilheiro.store.service.catalog;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publicado por {@link com.artilheiro.store.service.StockReservationService} quando o estoque de produtos muda por
+ * causa de pedidos (reserva ou devolução). Na próxima verificação periódica, depois do commit, o catálogo em memória
+ * atualiza os produtos cujos tamanhos disponíveis mudaram.
+ */
+public record StockChangedEvent(Set<UUID> productIds) {
+}
@@ -0,0 +1,165 @@
+package com.artilheiro.store.service.events;
+
+import com.artilheiro.store.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia o status dos pedidos por Server-Sent Events (GET /api/orders/{orderNumber}/events) a quem está aguardando
+ * o pagamento, no lugar do polling de /sync-payment.
+ * <p>
+ * Cada conexão é um {@link SseEmitter} (requisição assíncrona: nenhuma thread fica presa por assinante). Mudanças de
+ * status feitas nesta instância são enviadas logo após o commit ({@link OrderStatusChangedEvent}); as feitas em outra
+ * instância (webhook processado lá, por exemplo) são percebidas por uma única consulta periódica dos pedidos
+ * assinados, a cada {@code app.order-events.poll-interval-ms}. Um comentário de heartbeat a cada
+ * {@code heartbeat-interval-ms} mantém a conexão aberta em proxies e detecta clientes que já saíram; conexões
+ * encerradas, expiradas ou com erro são removidas.
+ */
+@Component
+public class OrderEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventBroadcaster.class);
+    private static final String STATUS_EVENT = "status";
+    /** Pedidos por consulta na verificação periódica. */
+    private static final int POLL_CHUNK_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    /** Conexão de um cliente e o último status enviado a ele. */
+    private final class Subscriber {
+
+        private final String orderNumber;
+        private final SseEmitter emitter;
+        private volatile Order.OrderStatus lastSent;
+
+        Subscriber(String orderNumber, SseEmitter emitter) {
+            this.orderNumber = orderNumber;
+            this.emitter = emitter;
+        }
+
+        void sendStatus(Order.OrderStatus status) {
+            // Um pedido nunca volta a PAYMENT_PENDING: um PAYMENT_PENDING depois de outro status é leitura antiga
+            // (verificação periódica que leu antes do commit) e não é enviado
+            if (status == lastSent || (status == Order.OrderStatus.PAYMENT_PENDING && lastSent != null)) {
+                return;
+            }
+            lastSent = status;
+            send(SseEmitter.event()
+                    .name(STATUS_EVENT)
+                    .data(Map.of("orderNumber", orderNumber, "status", status.name()), MediaType.APPLICATION_JSON));
+        }
+
+        void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectou (ou conexão já encerrada): onCompletion/onError removem o assinante
+                emitter.completeWithError(e);
+                remove(this);
+            }
+        }
+    }
+
+    public OrderEventBroadcaster(NamedParameterJdbcTemplate jdbcTemplate,
+                                 @Value("${app.order-events.timeout:30m}") Duration timeout,
+                                 @Value("${app.order-events.max-subscribers:10000}") int maxSubscribers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Abre a conexão de eventos do pedido e envia o status atual.
+     *
+     * @throws IllegalStateException se esta instância já estiver no limite de conexões
+     */
+    public SseEmitter subscribe(String orderNumber, Order.OrderStatus currentStatus) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Limite de conexões de acompanhamento atingido; tente novamente em instantes");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(orderNumber, emitter);
+        subscribers.compute(orderNumber, (key, forOrder) -> {
+            Set<Subscriber> set = forOrder != null ? forOrder : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscriber.sendStatus(currentStatus);
+        return emitter;
+    }
+
+    /** Após o commit da alteração de status, avisa os assinantes do pedido nesta instância. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        Set<Subscriber> forOrder = subscribers.get(event.orderNumber());
+        if (forOrder != null) {
+            forOrder.forEach(subscriber -> subscriber.sendStatus(event.status()));
+        }
+    }
+
+    /** Status alterados por outras instâncias: uma consulta (por bloco de pedidos) para todos os assinantes. */
+    @Scheduled(fixedDelayString = "${app.order-events.poll-interval-ms:3000}")
+    public void pollStatuses() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> orderNumbers = new ArrayList<>(subscribers.keySet());
+            for (int start = 0; start < orderNumbers.size(); start += POLL_CHUNK_SIZE) {
+                List<String> chunk = orderNumbers.subList(start, Math.min(start + POLL_CHUNK_SIZE, orderNumbers.size()));
+                jdbcTemplate.query("SELECT order_number, status FROM orders WHERE order_number IN (:numbers)",
+                        new MapSqlParameterSource("numbers", chunk),
+                        rs -> {
+                            Set<Subscriber> forOrder = subscribers.get(rs.getString("order_number"));
+                            if (forOrder != null) {
+                                Order.OrderStatus status = Order.OrderStatus.valueOf(rs.getString("status"));
+                                forOrder.forEach(subscriber -> subscriber.sendStatus(status));
+                            }
+                        });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Eventos de pedido: falha ao verificar status: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-events.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        for (Set<Subscriber> forOrder : subscribers.values()) {
+            forOrder.forEach(subscriber -> subscriber.send(SseEmitter.event().comment("ping")));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.orderNumber, (key, forOrder) -> {
+            if (forOrder.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return forOrder.isEmpty() ? null : forOrder;
+        });
+    }
+}
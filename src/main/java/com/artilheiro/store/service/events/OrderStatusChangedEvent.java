@@ -0,0 +1,10 @@
+package com.artilheiro.store.service.events;
+
+import com.artilheiro.store.model.Order;
+
+/**
+ * Status de um pedido alterado (pagamento aprovado, cancelamento, envio...). Publicado na transação da alteração;
+ * os assinantes de {@link OrderEventBroadcaster} são avisados após o commit.
+ */
+public record OrderStatusChangedEvent(String orderNumber, Order.OrderStatus status) {
+}
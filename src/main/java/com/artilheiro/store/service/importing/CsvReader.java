@@ -0,0 +1,116 @@
+package com.artilheiro.store.service.importing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV em streaming (RFC 4180): campos entre aspas podem conter delimitador, quebra de linha e aspas
+ * duplicadas (""). Lê um registro por vez, então a memória usada depende só do tamanho do maior registro,
+ * limitado por {@code maxRecordChars}.
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private final char delimiter;
+    private final int maxRecordChars;
+    private long line = 1;
+    private long recordLine = 1;
+    private int pushback = -2;
+
+    CsvReader(Reader reader, char delimiter, int maxRecordChars) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /** Linha do arquivo em que começou o último registro lido. */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Próximo registro, ou null no fim do arquivo. Linhas em branco são ignoradas.
+     *
+     * @throws IllegalArgumentException se o registro exceder o tamanho máximo (ex.: aspas não fechadas)
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int recordChars = 0;
+        recordLine = line;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Aspas não fechadas a partir da linha " + recordLine);
+                }
+                if (!fieldStarted && fields.isEmpty()) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (++recordChars > maxRecordChars) {
+                throw new IllegalArgumentException("Registro da linha " + recordLine + " excede " + maxRecordChars + " caracteres");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') unread(next);
+                }
+                line++;
+                if (!fieldStarted && fields.isEmpty()) {
+                    // linha em branco
+                    recordLine = line;
+                    recordChars = 0;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
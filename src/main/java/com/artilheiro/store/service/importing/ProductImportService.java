@@ -0,0 +1,415 @@
+package com.artilheiro.store.service.importing;
+
+import com.artilheiro.store.dto.product.ProductImportResponse;
+import com.artilheiro.store.dto.product.ProductImportRow;
+import com.artilheiro.store.service.catalog.ProductCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Importação em lote de produtos (POST /api/products/import) a partir de CSV ou NDJSON.
+ * <p>
+ * O corpo é lido em streaming, uma linha por vez; cada linha é validada como {@link ProductImportRow} e as válidas
+ * são gravadas com INSERT em batch via JDBC, em lotes de {@code app.import.batch-size} (cada lote na sua transação,
+ * incrementando a versão do catálogo). A memória usada não depende do tamanho do arquivo: só o lote atual e os
+ * erros reportados (limitados) ficam em memória.
+ * <p>
+ * CSV: cabeçalho obrigatório com as colunas name, team, liga, category, price, sizes e, opcionais, promoPrice,
+ * images, active e freteGratis. Delimitador vírgula ou ponto e vírgula (detectado pelo cabeçalho);
+ * sizes no formato {@code P:3|M:5}, images como URLs separadas por {@code |}; preços aceitam vírgula decimal.
+ * NDJSON: um objeto JSON por linha com os mesmos campos (sizes como objeto, images como array).
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    /** Limite de um registro/linha; protege contra aspas não fechadas ou linhas gigantes. */
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO product (id, name, team, liga, category, price, promo_price, images, sizes, active,
+                                 frete_gratis, created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?, ?, 0)
+            """;
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "team", "liga", "category", "price", "sizes");
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * @throws IllegalArgumentException se o Content-Type não for text/csv nem application/x-ndjson
+         */
+        public static Format fromContentType(String contentType) {
+            String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+            if (type.startsWith("text/csv")) return CSV;
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/ndjson")) return NDJSON;
+            throw new IllegalArgumentException("Formato não suportado: use text/csv ou application/x-ndjson");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCatalog productCatalog;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ProductCatalog productCatalog, Validator validator, ObjectMapper objectMapper,
+                                @Value("${app.import.batch-size:500}") int batchSize,
+                                @Value("${app.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCatalog = productCatalog;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Importa os produtos do corpo. Linhas inválidas são reportadas e não impedem as demais.
+     *
+     * @throws IllegalArgumentException se o cabeçalho do CSV não tiver as colunas obrigatórias
+     */
+    public ProductImportResponse importProducts(InputStream body, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source = format == Format.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+
+        ProductImportResponse result = new ProductImportResponse();
+        Chunk chunk = new Chunk(batchSize);
+        try {
+            ParsedRow parsed;
+            while ((parsed = source.next()) != null) {
+                result.setReceived(result.getReceived() + 1);
+                String error = parsed.error() != null ? parsed.error() : validate(parsed.row());
+                if (error != null) {
+                    addError(result, parsed.line(), error);
+                    continue;
+                }
+                chunk.add(parsed.line(), toInsertParams(parsed.row()));
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, result);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Arquivo malformado a partir deste ponto: grava o que já foi lido e interrompe
+            addError(result, source.line(), e.getMessage() + ". Importação interrompida.");
+        }
+        flush(chunk, result);
+
+        if (result.getImported() > 0) {
+            productCatalog.reload();
+        }
+        log.info("Importação de produtos: {} recebidos, {} importados, {} com erro",
+                result.getReceived(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void flush(Chunk chunk, ProductImportResponse result) {
+        if (chunk.size() == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk.params);
+                productCatalog.nextVersion();
+            });
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Importação de produtos: falha ao gravar lote de {} linhas", chunk.size(), e);
+            String message = "Erro ao gravar lote: " + e.getMostSpecificCause().getMessage();
+            for (long line : chunk.lines) {
+                addError(result, line, message);
+            }
+        }
+        chunk.clear();
+    }
+
+    private String validate(ProductImportRow row) {
+        List<String> messages = new ArrayList<>();
+        for (ConstraintViolation<ProductImportRow> violation : validator.validate(row)) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (row.getSizes() != null) {
+            row.getSizes().forEach((size, quantity) -> {
+                if (quantity == null || quantity < 0) messages.add("sizes: quantidade inválida para " + size);
+            });
+        }
+        if (messages.isEmpty()) {
+            return null;
+        }
+        messages.sort(null);
+        return String.join("; ", messages);
+    }
+
+    private void addError(ProductImportResponse result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportResponse.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private Object[] toInsertParams(ProductImportRow row) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Object[]{
+                UUID.randomUUID(),
+                row.getName().trim(),
+                row.getTeam().trim(),
+                row.getLiga().trim(),
+                row.getCategory().trim(),
+                row.getPrice(),
+                row.getPromoPrice(),
+                toJson(row.getImages() != null ? row.getImages() : List.of()),
+                toJson(row.getSizes()),
+                row.getActive() != null ? row.getActive() : true,
+                row.getFreteGratis() != null ? row.getFreteGratis() : false,
+                now,
+                now
+        };
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar produto: " + e.getMessage(), e);
+        }
+    }
+
+    /** Linha lida do arquivo: o produto ou o erro de leitura/conversão. */
+    private record ParsedRow(long line, ProductImportRow row, String error) {
+    }
+
+    private interface RowSource {
+
+        /** Próxima linha, ou null no fim do arquivo. */
+        ParsedRow next() throws IOException;
+
+        /** Linha atual do arquivo (para reportar erros de leitura). */
+        long line();
+    }
+
+    /** Lote pendente de gravação, com a linha de origem de cada produto. */
+    private static final class Chunk {
+
+        private final List<Object[]> params;
+        private final List<Long> lines;
+
+        Chunk(int capacity) {
+            this.params = new ArrayList<>(capacity);
+            this.lines = new ArrayList<>(capacity);
+        }
+
+        void add(long line, Object[] row) {
+            lines.add(line);
+            params.add(row);
+        }
+
+        int size() {
+            return params.size();
+        }
+
+        void clear() {
+            params.clear();
+            lines.clear();
+        }
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+
+        private final Reader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private long line;
+
+        NdjsonRowSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            while (true) {
+                boolean tooLong = false;
+                buffer.setLength(0);
+                int c;
+                while ((c = reader.read()) != -1 && c != '\n') {
+                    if (buffer.length() < MAX_RECORD_CHARS) {
+                        buffer.append((char) c);
+                    } else {
+                        tooLong = true; // descarta o resto da linha sem guardar
+                    }
+                }
+                if (c == -1 && buffer.isEmpty()) {
+                    return null;
+                }
+                line++;
+                if (tooLong) {
+                    return new ParsedRow(line, null, "Linha excede " + MAX_RECORD_CHARS + " caracteres");
+                }
+                String json = buffer.toString().trim();
+                if (json.isEmpty()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(line, objectMapper.readValue(json, ProductImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+
+    private static final class CsvRowSource implements RowSource {
+
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowSource(BufferedReader reader) throws IOException {
+            reader.mark(MAX_RECORD_CHARS);
+            String headerLine = reader.readLine();
+            if (headerLine == null || headerLine.isBlank()) {
+                throw new IllegalArgumentException("CSV vazio: o cabeçalho é obrigatório");
+            }
+            reader.reset();
+            // Planilhas em português costumam exportar com ';' (a vírgula é o separador decimal)
+            char delimiter = headerLine.indexOf(';') >= 0 && headerLine.indexOf(',') < 0 ? ';' : ',';
+            this.csv = new CsvReader(reader, delimiter, MAX_RECORD_CHARS);
+
+            List<String> header = csv.next();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(normalizeColumn(header.get(i)), i);
+            }
+            List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Colunas obrigatórias ausentes no CSV: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            long line = csv.recordLine();
+            if (fields.size() != columns.size()) {
+                return new ParsedRow(line, null, "Esperadas " + columns.size() + " colunas, encontradas " + fields.size());
+            }
+            try {
+                ProductImportRow row = new ProductImportRow();
+                row.setName(value(fields, "name"));
+                row.setTeam(value(fields, "team"));
+                row.setLiga(value(fields, "liga"));
+                row.setCategory(value(fields, "category"));
+                row.setPrice(decimal(value(fields, "price"), "price"));
+                row.setPromoPrice(decimal(value(fields, "promoprice"), "promoPrice"));
+                row.setSizes(sizes(value(fields, "sizes")));
+                row.setImages(images(value(fields, "images")));
+                row.setActive(bool(value(fields, "active"), true));
+                row.setFreteGratis(bool(value(fields, "fretegratis"), false));
+                return new ParsedRow(line, row, null);
+            } catch (IllegalArgumentException e) {
+                return new ParsedRow(line, null, e.getMessage());
+            }
+        }
+
+        @Override
+        public long line() {
+            return csv.recordLine();
+        }
+
+        private String value(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null) return null;
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static String normalizeColumn(String column) {
+            return column.trim().replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+        }
+
+        private static BigDecimal decimal(String value, String column) {
+            if (value == null) return null;
+            try {
+                return new BigDecimal(value.replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": valor numérico inválido \"" + value + "\"");
+            }
+        }
+
+        /** "P:3|M:5|G:0" → {P=3, M=5, G=0}, mantendo a ordem. */
+        private static Map<String, Integer> sizes(String value) {
+            if (value == null) return null;
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (String part : value.split("\\|")) {
+                if (part.isBlank()) continue;
+                String[] sizeAndQuantity = part.split(":", 2);
+                if (sizeAndQuantity.length != 2 || sizeAndQuantity[0].isBlank()) {
+                    throw new IllegalArgumentException("sizes: use o formato P:3|M:5 (recebido \"" + value + "\")");
+                }
+                try {
+                    sizes.put(sizeAndQuantity[0].trim(), Integer.parseInt(sizeAndQuantity[1].trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("sizes: quantidade inválida em \"" + part + "\"");
+                }
+            }
+            return sizes;
+        }
+
+        private static List<String> images(String value) {
+            if (value == null) return List.of();
+            List<String> images = new ArrayList<>();
+            for (String url : value.split("\\|")) {
+                if (!url.isBlank()) images.add(url.trim());
+            }
+            return images;
+        }
+
+        private static Boolean bool(String value, boolean defaultValue) {
+            if (value == null) return defaultValue;
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "1", "sim", "s", "yes" -> true;
+                case "false", "0", "nao", "não", "n", "no" -> false;
+                default -> throw new IllegalArgumentException("Valor booleano inválido \"" + value + "\"");
+            };
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.artilheiro.store.service.webhook;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Primeira barreira contra notificações repetidas do Mercado Pago (reenvios, payment.created + payment.updated,
+ * variantes POST e GET do webhook): lembra, em um LRU limitado a {@code app.webhook.dedup-cache-size} entradas,
+ * os x-request-id já recebidos e os pagamentos já vistos em status final. Repetições conhecidas são descartadas
+ * sem ir ao banco; as demais passam pelas chaves únicas da caixa de entrada ({@link WebhookInbox#enqueue}).
+ * <p>
+ * Métrica {@code webhook.dedup} por resultado: {@code memory} e {@code database} (duplicadas descartadas aqui ou pelo
+ * banco) e {@code accepted}; a taxa de acerto é (memory + database) / total.
+ */
+@Component
+public class WebhookDeduplicator {
+
+    /**
+     * Status de pagamento após os quais novas notificações não mudam o pedido
+     * (o processamento só reage a "approved" de pedidos aguardando pagamento).
+     */
+    static final Set<String> FINAL_PAYMENT_STATUSES = Set.of("approved", "rejected", "cancelled", "refunded", "charged_back");
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Boolean> seen;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter accepted;
+
+    public WebhookDeduplicator(MeterRegistry meterRegistry,
+                               @Value("${app.webhook.dedup-cache-size:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.seen = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > WebhookDeduplicator.this.maxEntries;
+            }
+        };
+        this.memoryHits = dedupCounter(meterRegistry, "memory");
+        this.databaseHits = dedupCounter(meterRegistry, "database");
+        this.accepted = dedupCounter(meterRegistry, "accepted");
+    }
+
+    private static Counter dedupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("webhook.dedup")
+                .description("Notificações de webhook recebidas, por resultado da deduplicação")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** true se a notificação já é conhecida como repetida (contada como acerto em memória). */
+    synchronized boolean isKnownDuplicate(String paymentId, String requestId) {
+        boolean duplicate = (requestId != null && seen.get(requestKey(requestId)) != null)
+                || seen.get(paymentKey(paymentId)) != null;
+        if (duplicate) {
+            memoryHits.increment();
+        }
+        return duplicate;
+    }
+
+    /** Registra o resultado da gravação na caixa de entrada ({@code inserted = false}: repetida, barrada pelo banco). */
+    synchronized void recordEnqueue(String requestId, boolean inserted) {
+        if (requestId != null) {
+            seen.put(requestKey(requestId), Boolean.TRUE);
+        }
+        (inserted ? accepted : databaseHits).increment();
+    }
+
+    /**
+     * Lembra o status do pagamento após processar; status finais fazem as próximas notificações serem descartadas.
+     * Chamado só com o status já aplicado ao pedido (ver {@link WebhookInbox#markDone}).
+     */
+    synchronized void recordPaymentStatus(String paymentId, String status) {
+        if (isFinal(status)) {
+            seen.put(paymentKey(paymentId), Boolean.TRUE);
+        }
+    }
+
+    static boolean isFinal(String status) {
+        return status != null && FINAL_PAYMENT_STATUSES.contains(status);
+    }
+
+    private static String requestKey(String requestId) {
+        return "req:" + requestId;
+    }
+
+    private static String paymentKey(String paymentId) {
+        return "pay:" + paymentId;
+    }
+}
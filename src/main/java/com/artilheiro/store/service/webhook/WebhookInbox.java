@@ -0,0 +1,166 @@
+package com.artilheiro.store.service.webhook;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Caixa de entrada dos webhooks do Mercado Pago (tabela webhook_inbox).
+ * <p>
+ * Uma notificação fica PENDING até ser processada. Para processar, a instância a "pega" com
+ * {@code FOR UPDATE SKIP LOCKED} e adia {@code next_attempt_at} pelo prazo de processamento: nenhuma outra instância
+ * pega a mesma notificação nesse prazo, e se a instância cair no meio, a notificação volta a ficar disponível quando o
+ * prazo vencer. Termina como DONE ou, esgotadas as tentativas, FAILED.
+ * <p>
+ * Notificações repetidas não geram nova linha: x-request-id já recebido, pagamento com outra notificação ainda não
+ * iniciada na fila ou pagamento já processado em status final (índices únicos da V16). Uma notificação que chega
+ * enquanto outra do mesmo pagamento está em processamento é aceita, para não perder uma mudança de status.
+ */
+@Service
+public class WebhookInbox {
+
+    /** Notificação pega para processamento. */
+    public record Claimed(UUID id, String type, String resourceId, int attempts, LocalDateTime receivedAt) {
+    }
+
+    /** Pendentes e idade da mais antiga (null se não houver), para as métricas. */
+    public record Backlog(long pending, LocalDateTime oldestReceivedAt) {
+    }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO webhook_inbox (id, type, resource_id, request_id, received_at, status, attempts, next_attempt_at)
+            SELECT :id, :type, :resourceId, :requestId, :now, 'PENDING', 0, :now
+            WHERE NOT EXISTS (
+                SELECT 1 FROM webhook_inbox
+                WHERE resource_id = :resourceId AND payment_status IN (:finalStatuses))
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String CLAIM_SQL = """
+            UPDATE webhook_inbox
+            SET attempts = attempts + 1, next_attempt_at = :leaseUntil
+            WHERE id IN (
+                SELECT id FROM webhook_inbox
+                WHERE status = 'PENDING' AND next_attempt_at <= :now
+                ORDER BY next_attempt_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, type, resource_id, attempts, received_at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WebhookDeduplicator deduplicator;
+
+    public WebhookInbox(NamedParameterJdbcTemplate jdbcTemplate, WebhookDeduplicator deduplicator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Grava a notificação recebida, pronta para processar, a menos que seja repetida.
+     * Sem transação: o INSERT já está gravado quando o método retorna (e o LRU só lembra o que foi gravado).
+     *
+     * @return false se a notificação foi descartada como repetida
+     */
+    public boolean enqueue(String type, String resourceId, String requestId) {
+        String paymentId = resourceId.trim();
+        String normalizedRequestId = requestId != null && !requestId.isBlank() ? requestId.trim() : null;
+        if (deduplicator.isKnownDuplicate(paymentId, normalizedRequestId)) {
+            return false;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", UUID.randomUUID())
+                .addValue("type", type)
+                .addValue("resourceId", paymentId)
+                .addValue("requestId", normalizedRequestId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("finalStatuses", WebhookDeduplicator.FINAL_PAYMENT_STATUSES);
+        boolean inserted = jdbcTemplate.update(INSERT_SQL, params) == 1;
+        deduplicator.recordEnqueue(normalizedRequestId, inserted);
+        return inserted;
+    }
+
+    /**
+     * Pega até {@code limit} notificações disponíveis (as de tentativa mais antiga primeiro), reservadas por
+     * {@code lease}. A contagem de tentativas já inclui a que vai começar.
+     */
+    @Transactional
+    public List<Claimed> claim(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource("now", Timestamp.valueOf(now))
+                .addValue("leaseUntil", Timestamp.valueOf(now.plus(lease)))
+                .addValue("limit", limit);
+        return jdbcTemplate.query(CLAIM_SQL, params, (rs, rowNum) -> new Claimed(
+                rs.getObject("id", UUID.class),
+                rs.getString("type"),
+                rs.getString("resource_id"),
+                rs.getInt("attempts"),
+                rs.getTimestamp("received_at").toLocalDateTime()));
+    }
+
+    /**
+     * @param paymentStatus status do pagamento no Mercado Pago ao processar; null se não consultado ou se o pagamento
+     *                      aprovado não foi aplicado a um pedido (assim não é lembrado como processado em status final)
+     */
+    @Transactional
+    public void markDone(UUID id, String resourceId, String paymentStatus) {
+        jdbcTemplate.update("""
+                        UPDATE webhook_inbox
+                        SET status = 'DONE', processed_at = :now, payment_status = :paymentStatus, last_error = NULL
+                        WHERE id = :id
+                        """,
+                new MapSqlParameterSource("id", id)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .addValue("paymentStatus", paymentStatus));
+        deduplicator.recordPaymentStatus(resourceId, paymentStatus);
+    }
+
+    /** Agenda nova tentativa daqui a {@code delay}. */
+    @Transactional
+    public void retryLater(UUID id, Duration delay, String error) {
+        jdbcTemplate.update("UPDATE webhook_inbox SET next_attempt_at = :next, last_error = :error WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("next", Timestamp.valueOf(LocalDateTime.now().plus(delay)))
+                        .addValue("error", truncate(error)));
+    }
+
+    /** Desiste da notificação (tentativas esgotadas); fica gravada para conferência. */
+    @Transactional
+    public void markFailed(UUID id, String error) {
+        jdbcTemplate.update("UPDATE webhook_inbox SET status = 'FAILED', processed_at = :now, last_error = :error WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .addValue("error", truncate(error)));
+    }
+
+    @Transactional(readOnly = true)
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS pending, MIN(received_at) AS oldest FROM webhook_inbox WHERE status = 'PENDING'",
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp("oldest");
+                    return new Backlog(rs.getLong("pending"), oldest != null ? oldest.toLocalDateTime() : null);
+                });
+    }
+
+    /** Apaga as notificações processadas com sucesso há mais de {@code retention}; devolve quantas. */
+    @Transactional
+    public int purgeDone(Duration retention) {
+        return jdbcTemplate.update("DELETE FROM webhook_inbox WHERE status = 'DONE' AND processed_at < :before",
+                new MapSqlParameterSource("before", Timestamp.valueOf(LocalDateTime.now().minus(retention))));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
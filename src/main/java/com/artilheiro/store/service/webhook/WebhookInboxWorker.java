@@ -0,0 +1,204 @@
+package com.artilheiro.store.service.webhook;
+
+import com.artilheiro.store.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processa a caixa de entrada dos webhooks ({@link WebhookInbox}) em segundo plano.
+ * <p>
+ * A cada {@code app.webhook.poll-interval-ms} pega tantas notificações quantos workers estiverem livres (no máximo
+ * {@code app.webhook.workers} em processamento por instância) e processa cada uma em um worker: consulta o pagamento
+ * no Mercado Pago e atualiza o pedido ({@link OrderService#processMercadoPagoWebhook}). Se falhar, tenta de novo
+ * com espera exponencial ({@code backoff-initial} dobrando até {@code backoff-max}) até {@code max-attempts}.
+ * <p>
+ * Métricas: {@code webhook.inbox.pending} e {@code webhook.inbox.lag} (segundos desde a notificação pendente mais
+ * antiga), {@code webhook.inbox.processed} por resultado (done, retry, failed), {@code webhook.inbox.processing}
+ * (duração) e {@code webhook.inbox.workers.active}.
+ */
+@Component
+public class WebhookInboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxWorker.class);
+
+    private final WebhookInbox inbox;
+    private final OrderService orderService;
+    private final int workers;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration backoffInitial;
+    private final Duration backoffMax;
+    private final Duration retention;
+
+    private final ExecutorService executor;
+    /** Workers livres; o poller só pega notificações que consegue começar a processar. */
+    private final Semaphore freeWorkers;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private volatile WebhookInbox.Backlog backlog = new WebhookInbox.Backlog(0, null);
+
+    private final Counter done;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer processing;
+
+    public WebhookInboxWorker(WebhookInbox inbox, OrderService orderService, MeterRegistry meterRegistry,
+                              @Value("${app.webhook.workers:4}") int workers,
+                              @Value("${app.webhook.lease:2m}") Duration lease,
+                              @Value("${app.webhook.max-attempts:8}") int maxAttempts,
+                              @Value("${app.webhook.backoff-initial:10s}") Duration backoffInitial,
+                              @Value("${app.webhook.backoff-max:30m}") Duration backoffMax,
+                              @Value("${app.webhook.retention:7d}") Duration retention) {
+        if (workers < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("app.webhook.workers e app.webhook.max-attempts devem ser >= 1");
+        }
+        this.inbox = inbox;
+        this.orderService = orderService;
+        this.workers = workers;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.backoffInitial = backoffInitial;
+        this.backoffMax = backoffMax;
+        this.retention = retention;
+        this.freeWorkers = new Semaphore(workers);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("webhook.inbox.pending", this, worker -> worker.backlog.pending())
+                .description("Notificações de webhook aguardando processamento")
+                .register(meterRegistry);
+        Gauge.builder("webhook.inbox.lag", this, WebhookInboxWorker::lagSeconds)
+                .description("Segundos desde a notificação pendente mais antiga")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("webhook.inbox.workers.active", activeWorkers, AtomicInteger::get)
+                .description("Notificações em processamento nesta instância")
+                .register(meterRegistry);
+        this.done = processedCounter(meterRegistry, "done");
+        this.retried = processedCounter(meterRegistry, "retry");
+        this.failed = processedCounter(meterRegistry, "failed");
+        this.processing = Timer.builder("webhook.inbox.processing")
+                .description("Duração do processamento de uma notificação")
+                .register(meterRegistry);
+    }
+
+    private static Counter processedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("webhook.inbox.processed")
+                .description("Notificações de webhook processadas, por resultado")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhook.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            backlog = inbox.backlog();
+            int free = freeWorkers.availablePermits();
+            if (free == 0 || backlog.pending() == 0) {
+                return;
+            }
+            List<WebhookInbox.Claimed> claimed = inbox.claim(free, lease);
+            for (WebhookInbox.Claimed notification : claimed) {
+                freeWorkers.acquireUninterruptibly();
+                executor.execute(() -> {
+                    activeWorkers.incrementAndGet();
+                    try {
+                        process(notification);
+                    } finally {
+                        activeWorkers.decrementAndGet();
+                        freeWorkers.release();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Webhook inbox: falha ao buscar notificações: {}", e.getMessage());
+        }
+    }
+
+    private void process(WebhookInbox.Claimed notification) {
+        long start = System.nanoTime();
+        try {
+            String paymentStatus = orderService.processMercadoPagoWebhook(notification.type(), notification.resourceId());
+            inbox.markDone(notification.id(), notification.resourceId(), paymentStatus);
+            done.increment();
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            try {
+                if (notification.attempts() >= maxAttempts) {
+                    inbox.markFailed(notification.id(), error);
+                    failed.increment();
+                    log.error("Webhook MP: desistindo da notificação {} (paymentId={}) após {} tentativas: {}",
+                            notification.id(), notification.resourceId(), notification.attempts(), error);
+                } else {
+                    Duration delay = backoff(notification.attempts());
+                    inbox.retryLater(notification.id(), delay, error);
+                    retried.increment();
+                    log.warn("Webhook MP: notificação {} (paymentId={}) falhou na tentativa {}, nova tentativa em {}s: {}",
+                            notification.id(), notification.resourceId(), notification.attempts(), delay.toSeconds(), error);
+                }
+            } catch (RuntimeException updateError) {
+                // Sem registrar o resultado, a notificação volta a ficar disponível quando o prazo (lease) vencer
+                log.warn("Webhook MP: falha ao registrar resultado da notificação {}: {}", notification.id(), updateError.getMessage());
+            }
+        } finally {
+            processing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Espera antes da próxima tentativa: dobra a cada tentativa, até backoff-max, com variação de ±20%. */
+    private Duration backoff(int attempts) {
+        long millis = backoffInitial.toMillis() << Math.min(attempts - 1, 20);
+        millis = Math.min(millis, backoffMax.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (millis * jitter));
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = backlog.oldestReceivedAt();
+        return oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0) : 0;
+    }
+
+    /** Apaga periodicamente as notificações já processadas há mais de {@code app.webhook.retention}. */
+    @Scheduled(fixedDelayString = "${app.webhook.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void purge() {
+        try {
+            int deleted = inbox.purgeDone(retention);
+            if (deleted > 0) {
+                log.info("Webhook inbox: {} notificações processadas removidas", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Webhook inbox: falha na limpeza: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Webhook inbox: {} notificações ainda em processamento no desligamento; serão retomadas após o prazo",
+                    workers - freeWorkers.availablePermits());
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- Meio de pagamento gravado no pedido (consulta do pedido sem chamar o Mercado Pago).
+-- Pedidos antigos: backfill com app.backfill.payment-info=true (PaymentMethodBackfill).
+ALTER TABLE orders
+    ADD COLUMN IF NOT EXISTS payment_method_id VARCHAR(50),
+    ADD COLUMN IF NOT EXISTS payment_type_id VARCHAR(50),
+    ADD COLUMN IF NOT EXISTS payment_method_name VARCHAR(100);
@@ -0,0 +1,2 @@
+-- Pedidos que baixaram estoque ao serem criados (devolvido ao cancelar). Pedidos anteriores não baixaram.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS stock_reserved BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,43 @@
+-- Itens do pedido em tabela própria (antes só no jsonb orders.items), com a foto do produto na compra
+CREATE TABLE IF NOT EXISTS order_item (
+    id          UUID PRIMARY KEY,
+    order_id    UUID         NOT NULL REFERENCES orders (id) ON DELETE CASCADE,
+    line_number INT          NOT NULL,
+    product_id  UUID,
+    size        VARCHAR(20),
+    quantity    INT          NOT NULL,
+    unit_price  NUMERIC(19, 2),
+    name        VARCHAR(255),
+    image       VARCHAR(1000),
+    images      JSONB,
+    team        VARCHAR(255),
+    liga        VARCHAR(255),
+    category    VARCHAR(255)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_order_item_order_line ON order_item (order_id, line_number);
+-- Vendas por produto / tamanho
+CREATE INDEX IF NOT EXISTS idx_order_item_product_size ON order_item (product_id, size);
+
+-- Migra os itens dos pedidos existentes (idempotente: só pedidos ainda sem itens na tabela)
+INSERT INTO order_item (id, order_id, line_number, product_id, size, quantity, unit_price,
+                        name, image, images, team, liga, category)
+SELECT gen_random_uuid(),
+       o.id,
+       (i.ord - 1)::int,
+       CASE WHEN i.item ->> 'productId' ~* '^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$'
+            THEN (i.item ->> 'productId')::uuid END,
+       LEFT(i.item ->> 'size', 20),
+       CASE WHEN i.item ->> 'quantity' ~ '^[0-9]+$' THEN (i.item ->> 'quantity')::int ELSE 0 END,
+       CASE WHEN COALESCE(i.item ->> 'unitPrice', i.item ->> 'price') ~ '^[0-9]+(\.[0-9]+)?$'
+            THEN COALESCE(i.item ->> 'unitPrice', i.item ->> 'price')::numeric END,
+       i.item ->> 'name',
+       COALESCE(i.item ->> 'image', i.item -> 'images' ->> 0),
+       CASE WHEN jsonb_typeof(i.item -> 'images') = 'array' THEN i.item -> 'images' END,
+       i.item ->> 'team',
+       i.item ->> 'liga',
+       i.item ->> 'category'
+FROM orders o
+CROSS JOIN LATERAL jsonb_array_elements(CASE WHEN jsonb_typeof(o.items) = 'array' THEN o.items ELSE '[]'::jsonb END)
+    WITH ORDINALITY AS i(item, ord)
+WHERE NOT EXISTS (SELECT 1 FROM order_item oi WHERE oi.order_id = o.id);
@@ -0,0 +1,20 @@
+-- Vendas por dia, time, liga e meio de pagamento (pedidos pagos), mantidas incrementalmente pela aplicação
+CREATE TABLE IF NOT EXISTS sales_daily_rollup (
+    day            DATE           NOT NULL,
+    team           VARCHAR(255)   NOT NULL,
+    liga           VARCHAR(255)   NOT NULL,
+    payment_method VARCHAR(255)   NOT NULL,
+    units          BIGINT         NOT NULL,
+    revenue        NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (day, team, liga, payment_method)
+);
+
+-- Carga inicial, só com a tabela vazia (mesma consulta do rebuild em POST /api/analytics/sales/rebuild)
+INSERT INTO sales_daily_rollup (day, team, liga, payment_method, units, revenue)
+SELECT o.created_at::date, COALESCE(oi.team, ''), COALESCE(oi.liga, ''), COALESCE(o.payment_method_name, ''),
+       SUM(oi.quantity), SUM(COALESCE(oi.unit_price, 0) * oi.quantity)
+FROM orders o
+JOIN order_item oi ON oi.order_id = o.id
+WHERE o.status NOT IN ('PAYMENT_PENDING', 'CANCELLED')
+  AND NOT EXISTS (SELECT 1 FROM sales_daily_rollup)
+GROUP BY 1, 2, 3, 4;
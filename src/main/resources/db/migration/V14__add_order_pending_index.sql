@@ -0,0 +1,2 @@
+-- Pedidos aguardando pagamento por data (cancelamento dos vencidos); índice parcial, pequeno
+CREATE INDEX IF NOT EXISTS idx_orders_pending_created ON orders (created_at) WHERE status = 'PAYMENT_PENDING';
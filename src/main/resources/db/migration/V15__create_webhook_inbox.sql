@@ -0,0 +1,18 @@
+-- Caixa de entrada dos webhooks do Mercado Pago (gravados na requisição, processados em segundo plano)
+CREATE TABLE IF NOT EXISTS webhook_inbox (
+    id              UUID PRIMARY KEY,
+    type            VARCHAR(50)   NOT NULL,
+    resource_id     VARCHAR(100)  NOT NULL,
+    request_id      VARCHAR(100),
+    received_at     TIMESTAMP     NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP     NOT NULL,
+    processed_at    TIMESTAMP,
+    last_error      VARCHAR(1000)
+);
+
+-- Fila: só as pendentes, pela próxima tentativa
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_pending ON webhook_inbox (next_attempt_at) WHERE status = 'PENDING';
+-- Limpeza das processadas
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_processed ON webhook_inbox (processed_at) WHERE status = 'DONE';
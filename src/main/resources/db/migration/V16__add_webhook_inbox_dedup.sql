@@ -0,0 +1,24 @@
+-- Deduplicação dos webhooks do Mercado Pago
+ALTER TABLE webhook_inbox ADD COLUMN IF NOT EXISTS payment_status VARCHAR(30);
+
+-- Remove repetições já gravadas antes de criar as chaves únicas (mantém a primeira)
+DELETE FROM webhook_inbox a
+USING webhook_inbox b
+WHERE a.request_id = b.request_id
+  AND (a.received_at, a.id) > (b.received_at, b.id);
+
+DELETE FROM webhook_inbox a
+USING webhook_inbox b
+WHERE a.resource_id = b.resource_id
+  AND a.status = 'PENDING' AND a.attempts = 0
+  AND b.status = 'PENDING' AND b.attempts = 0
+  AND (a.received_at, a.id) > (b.received_at, b.id);
+
+-- Mesmo x-request-id = mesma entrega reenviada
+CREATE UNIQUE INDEX IF NOT EXISTS uq_webhook_inbox_request ON webhook_inbox (request_id) WHERE request_id IS NOT NULL;
+-- No máximo uma notificação por pagamento aguardando o primeiro processamento (as seguintes são redundantes:
+-- o processamento consulta o status atual do pagamento)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_webhook_inbox_pending_payment ON webhook_inbox (resource_id)
+    WHERE status = 'PENDING' AND attempts = 0;
+-- Pagamentos já processados em status final
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_payment_status ON webhook_inbox (resource_id) WHERE payment_status IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Paginação por cursor (keyset) da listagem admin: cada ordenação tem um índice (chave, id)
+CREATE INDEX IF NOT EXISTS idx_product_created_at_id ON product (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_product_effective_price_id ON product ((COALESCE(promo_price, price)), id);
+CREATE INDEX IF NOT EXISTS idx_product_lower_name_id ON product ((lower(name)), id);
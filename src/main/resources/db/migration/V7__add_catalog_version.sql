@@ -0,0 +1,13 @@
+-- Versão do catálogo (linha única) e versão/data de alteração por produto, para ETag / Last-Modified
+CREATE TABLE IF NOT EXISTS catalog_state (
+    id SMALLINT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO catalog_state (id, version, updated_at) VALUES (1, 1, CURRENT_TIMESTAMP)
+ON CONFLICT (id) DO NOTHING;
+
+ALTER TABLE product
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
@@ -0,0 +1,9 @@
+-- Listagem admin de pedidos: paginação por cursor (keyset) em (created_at, id), também com filtro de status
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders (status, created_at DESC, id DESC);
+
+-- Busca por texto (lower(coluna) LIKE '%termo%') no número do pedido, nome e e-mail do cliente
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_orders_order_number_trgm ON orders USING gin (lower(order_number) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_name_trgm ON orders USING gin (lower(customer_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_orders_email_trgm ON orders USING gin (lower(email) gin_trgm_ops);
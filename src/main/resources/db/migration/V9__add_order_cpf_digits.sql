@@ -0,0 +1,9 @@
+-- CPF só com dígitos (preenchido pela aplicação ao gravar) para a busca por CPF usar índice,
+-- em vez de REGEXP_REPLACE em todas as linhas
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS cpf_digits VARCHAR(11);
+
+-- CPF que não tem exatamente 11 dígitos fica sem cpf_digits (não é encontrado pela busca)
+UPDATE orders SET cpf_digits = REGEXP_REPLACE(cpf, '[^0-9]', '', 'g')
+WHERE cpf_digits IS NULL AND LENGTH(REGEXP_REPLACE(cpf, '[^0-9]', '', 'g')) = 11;
+
+CREATE INDEX IF NOT EXISTS idx_orders_cpf_digits_created_at_id ON orders (cpf_digits, created_at DESC, id DESC);
@@ -0,0 +1,30 @@
+package com.artilheiro.store;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base dos testes que precisam do Postgres de verdade (jsonb, sequences, SKIP LOCKED): um único container para
+ * todas as classes, com o schema criado pelo Hibernate (ddl-auto=update). Sem Docker, os testes são ignorados.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // Iniciado uma vez e compartilhado pelos contextos em cache; o Testcontainers remove ao fim da JVM
+        POSTGRES.start();
+        registry.add("DATABASE_URL", POSTGRES::getJdbcUrl);
+        registry.add("DATABASE_USERNAME", POSTGRES::getUsername);
+        registry.add("DATABASE_PASSWORD", POSTGRES::getPassword);
+        // Os testes da caixa de entrada de webhooks a processam diretamente; o worker de cada contexto em cache não
+        // deve disputar as notificações com eles
+        registry.add("app.webhook.poll-interval-ms", () -> "3600000");
+    }
+}
@@ -0,0 +1,110 @@
+package com.artilheiro.store.config;
+
+import com.mercadopago.MercadoPagoConfig;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.preference.PreferenceClient;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.net.MPHttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clientes do SDK montados por {@link MercadoPagoClientConfig} contra o {@link MercadoPagoStub}: todos passam pelo
+ * mesmo pool, registrado como padrão do SDK, e reaproveitam as conexões abertas.
+ */
+class MercadoPagoClientConfigTest {
+
+    private static final MPRequestOptions OPTIONS = MPRequestOptions.builder().accessToken("TEST-token").build();
+
+    private final MercadoPagoClientConfig config = new MercadoPagoClientConfig();
+    private MPHttpClient previousSdkClient;
+    private MercadoPagoStub stub;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        previousSdkClient = MercadoPagoConfig.getHttpClient();
+        stub = new MercadoPagoStub();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        MercadoPagoConfig.setHttpClient(previousSdkClient);
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        stub.close();
+    }
+
+    private MPHttpClient sdkHttpClient(int maxConnections) {
+        connectionManager = stub.connectionManager(maxConnections);
+        httpClient = config.mercadoPagoHttpClient(connectionManager, Duration.ofSeconds(30));
+        return config.mercadoPagoSdkHttpClient(httpClient, maxConnections);
+    }
+
+    @Test
+    void pooledClientIsInstalledAsSdkDefault() {
+        MPHttpClient sdkHttpClient = sdkHttpClient(4);
+
+        assertThat(MercadoPagoConfig.getHttpClient()).isSameAs(sdkHttpClient);
+        assertThat(MercadoPagoConfig.getMaxConnections()).isEqualTo(4);
+    }
+
+    @Test
+    void paymentAndPreferenceClientsReuseOnePooledConnection() throws Exception {
+        MPHttpClient sdkHttpClient = sdkHttpClient(4);
+        PaymentClient paymentClient = config.paymentClient(sdkHttpClient);
+        PreferenceClient preferenceClient = config.preferenceClient(sdkHttpClient);
+
+        assertThat(paymentClient.get(1L, OPTIONS).getStatus()).isEqualTo("approved");
+        assertThat(preferenceClient.get("pref-1", OPTIONS).getId()).isEqualTo("pref-1");
+        assertThat(paymentClient.get(1L, OPTIONS).getExternalReference()).isEqualTo("ART-1");
+        // Criado fora dos beans: usa o cliente padrão do SDK, o mesmo pool
+        assertThat(new PreferenceClient().get("pref-1", OPTIONS).getId()).isEqualTo("pref-1");
+
+        assertThat(stub.requests()).isEqualTo(4);
+        assertThat(stub.connections()).isEqualTo(1);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCallsStayWithinPoolLimit() throws Exception {
+        PaymentClient paymentClient = config.paymentClient(sdkHttpClient(2));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        paymentClient.get(1L, OPTIONS);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(stub.requests()).isEqualTo(80);
+        assertThat(stub.connections()).isLessThanOrEqualTo(2);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package com.artilheiro.store.config;
+
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.resources.payment.Payment;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta de pagamento pelo {@link PaymentClient} contra o {@link MercadoPagoStub}: pelo pool de
+ * {@link MercadoPagoClientConfig} (conexões keep-alive reaproveitadas) e por um cliente que abre uma conexão por
+ * chamada, como seria sem reaproveitamento.
+ * <p>
+ * O stub é HTTP local, então a diferença medida é só a abertura da conexão TCP; contra api.mercadopago.com cada
+ * conexão nova também paga o handshake TLS e a latência de rede. Para medir com concorrência, usar {@code -t 8}.
+ * Executar: {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main MercadoPagoHttpClientBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MercadoPagoHttpClientBenchmark {
+
+    private static final int MAX_CONNECTIONS = 20;
+    private static final MPRequestOptions OPTIONS = MPRequestOptions.builder().accessToken("TEST-token").build();
+
+    private MercadoPagoStub stub;
+    private CloseableHttpClient pooledHttpClient;
+    private CloseableHttpClient perCallHttpClient;
+    private PaymentClient pooledClient;
+    private PaymentClient perCallClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new MercadoPagoStub();
+        MercadoPagoClientConfig config = new MercadoPagoClientConfig();
+        pooledHttpClient = config.mercadoPagoHttpClient(stub.connectionManager(MAX_CONNECTIONS), Duration.ofSeconds(30));
+        pooledClient = config.paymentClient(config.mercadoPagoSdkHttpClient(pooledHttpClient, MAX_CONNECTIONS));
+        perCallHttpClient = HttpClients.custom()
+                .setConnectionManager(stub.connectionManager(MAX_CONNECTIONS))
+                .setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE)
+                .build();
+        perCallClient = config.paymentClient(new MercadoPagoClientConfig.PooledMercadoPagoHttpClient(perCallHttpClient));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try {
+            pooledHttpClient.close();
+            perCallHttpClient.close();
+        } finally {
+            stub.close();
+        }
+    }
+
+    @Benchmark
+    public Payment pooled() throws MPException, MPApiException {
+        return pooledClient.get(1L, OPTIONS);
+    }
+
+    @Benchmark
+    public Payment connectionPerCall() throws MPException, MPApiException {
+        return perCallClient.get(1L, OPTIONS);
+    }
+}
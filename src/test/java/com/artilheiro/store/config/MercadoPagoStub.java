@@ -0,0 +1,100 @@
+package com.artilheiro.store.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API do Mercado Pago simulada num {@link HttpServer} local (HTTP, sem TLS), para os testes e o benchmark do pool.
+ * <p>
+ * O SDK sempre monta as URLs com {@code https://api.mercadopago.com}; {@link #connectionManager} devolve o pool de
+ * {@link MercadoPagoClientConfig} com DNS e sockets desviados para o stub, então os clientes do SDK são usados sem
+ * alteração. Cada requisição registra a porta de origem, o que identifica a conexão TCP usada.
+ */
+class MercadoPagoStub implements AutoCloseable {
+
+    private static final byte[] PAYMENT = "{\"id\": 1, \"status\": \"approved\", \"external_reference\": \"ART-1\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PREFERENCE = "{\"id\": \"pref-1\", \"init_point\": \"https://example.com/pref-1\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    MercadoPagoStub() throws IOException {
+        // Sem TCP_NODELAY, o corpo da resposta espera o ACK atrasado dos cabeçalhos (~40 ms) em conexões reaproveitadas
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/payments/", exchange -> respond(exchange, PAYMENT));
+        server.createContext("/checkout/preferences/", exchange -> respond(exchange, PREFERENCE));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Pool configurado como em produção, com qualquer host ({@code https} incluso) resolvido para o stub. */
+    PoolingHttpClientConnectionManager connectionManager(int maxConnections) {
+        DnsResolver loopback = host -> new InetAddress[]{InetAddress.getLoopbackAddress()};
+        int port = server.getAddress().getPort();
+        ConnectionSocketFactory toStub = new PlainConnectionSocketFactory() {
+            @Override
+            public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                        InetSocketAddress localAddress, HttpContext context) throws IOException {
+                return super.connectSocket(connectTimeout, socket, host,
+                        new InetSocketAddress(remoteAddress.getAddress(), port), localAddress, context);
+            }
+        };
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("https", toStub)
+                .register("http", toStub)
+                .build();
+        return MercadoPagoClientConfig.pooledConnectionManager(registry, loopback, maxConnections, Duration.ofMinutes(5));
+    }
+
+    /** Conexões TCP distintas que chegaram ao stub. */
+    int connections() {
+        return clientPorts.size();
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
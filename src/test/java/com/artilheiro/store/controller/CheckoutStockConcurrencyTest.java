@@ -0,0 +1,140 @@
+package com.artilheiro.store.controller;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.dto.product.ProductRequest;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Centenas de checkouts simultâneos do mesmo tamanho: a baixa condicional de estoque não vende mais do que existe,
+ * e uma edição do admin feita com a versão lida antes das vendas é recusada em vez de devolver o estoque vendido.
+ */
+@AutoConfigureMockMvc
+class CheckoutStockConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int STOCK = 50;
+    private static final int CHECKOUTS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void parallelCheckoutsNeverOversell() throws Exception {
+        Product product = createProduct();
+        Long versionBeforeSales = product.getVersion();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            Callable<Integer> checkout = () -> {
+                start.await();
+                return createOrder(product).andReturn().getResponse().getStatus();
+            };
+            for (int i = 0; i < CHECKOUTS; i++) {
+                results.add(executor.submit(checkout));
+            }
+            start.countDown();
+            int created = 0;
+            int refused = 0;
+            for (Future<Integer> result : results) {
+                int status = result.get();
+                if (status == 201) {
+                    created++;
+                } else if (status == 400) {
+                    refused++;
+                }
+            }
+            assertThat(created).as("pedidos criados").isEqualTo(STOCK);
+            assertThat(refused).as("pedidos recusados por falta de estoque").isEqualTo(CHECKOUTS - STOCK);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Product sold = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(sold.getSizes()).containsEntry("M", 0);
+
+        // Edição sem versão ou com a versão lida antes das vendas: recusada, o estoque vendido não volta
+        updateSizes(product, null).andExpect(status().isBadRequest());
+        updateSizes(product, versionBeforeSales).andExpect(status().isConflict());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getSizes()).containsEntry("M", 0);
+
+        updateSizes(product, sold.getVersion()).andExpect(status().isOk());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getSizes()).containsEntry("M", STOCK);
+    }
+
+    private ResultActions createOrder(Product product) throws Exception {
+        Map<String, Object> request = Map.of(
+                "customer", Map.of("name", "Maria Silva", "email", "maria@example.com", "cpf", "123.456.789-09"),
+                "address", Map.of("cep", "01001000", "rua", "Praça da Sé", "numero", "1", "cidade", "São Paulo",
+                        "estado", "SP"),
+                "items", List.of(Map.of("productId", product.getId().toString(), "name", product.getName(),
+                        "size", "M", "quantity", 1, "unitPrice", product.getPrice())),
+                "total", product.getPrice());
+        return mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request)));
+    }
+
+    private ResultActions updateSizes(Product product, Long version) throws Exception {
+        ProductRequest request = new ProductRequest();
+        request.setName(product.getName());
+        request.setTeam(product.getTeam());
+        request.setLiga(product.getLiga());
+        request.setCategory(product.getCategory());
+        request.setPrice(product.getPrice());
+        request.setSizes(Map.of("M", STOCK));
+        request.setVersion(version);
+        MockMultipartFile part = new MockMultipartFile("product", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(request));
+        return mockMvc.perform(multipart(HttpMethod.PUT, "/api/products/{id}", product.getId()).file(part));
+    }
+
+    private Product createProduct() {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Estoque");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/estoque.png"));
+        product.setSizes(Map.of("M", STOCK));
+        product.setActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return productRepository.save(product);
+    }
+}
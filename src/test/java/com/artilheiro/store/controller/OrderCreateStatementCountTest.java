@@ -0,0 +1,96 @@
+package com.artilheiro.store.controller;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.SqlStatementCounter;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Regressão do N+1 em POST /api/orders: os produtos do carrinho são lidos em uma única consulta, então o número de
+ * comandos SQL do Hibernate não cresce com a quantidade de itens.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.artilheiro.store.SqlStatementCounter")
+class OrderCreateStatementCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void statementCountDoesNotGrowWithCartSize() throws Exception {
+        List<String> oneItem = createOrder(createProducts(1));
+        List<String> sixItems = createOrder(createProducts(6));
+
+        assertThat(selects(sixItems)).as("SELECTs com 6 itens: %s", sixItems).isEqualTo(selects(oneItem));
+        assertThat(sixItems).as("comandos com 6 itens").hasSameSizeAs(oneItem);
+    }
+
+    private List<String> createOrder(List<Product> products) throws Exception {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Product product : products) {
+            items.add(Map.of("productId", product.getId().toString(), "name", product.getName(), "size", "M",
+                    "quantity", 1, "unitPrice", product.getPrice()));
+        }
+        Map<String, Object> request = Map.of(
+                "customer", Map.of("name", "Maria Silva", "email", "maria@example.com", "cpf", "123.456.789-09"),
+                "address", Map.of("cep", "01001000", "rua", "Praça da Sé", "numero", "1", "cidade", "São Paulo",
+                        "estado", "SP"),
+                "items", items,
+                "total", BigDecimal.valueOf(99.90).multiply(BigDecimal.valueOf(products.size())));
+
+        SqlStatementCounter.start();
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated());
+        return SqlStatementCounter.stop();
+    }
+
+    private List<Product> createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(UUID.randomUUID());
+            product.setName("Camisa " + i);
+            product.setTeam("Time " + i);
+            product.setLiga("Liga");
+            product.setCategory("Clubes");
+            product.setPrice(new BigDecimal("99.90"));
+            product.setImages(List.of("https://example.com/" + i + ".png"));
+            product.setSizes(Map.of("M", 10));
+            product.setActive(true);
+            product.setCreatedAt(LocalDateTime.now());
+            products.add(productRepository.save(product));
+        }
+        return products;
+    }
+
+    private static long selects(List<String> statements) {
+        return statements.stream().filter(sql -> sql.stripLeading().toLowerCase().startsWith("select")).count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.artilheiro.store.controller;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/products/admin: sem {@code limit} nem {@code cursor}, a lista completa de produtos (contrato anterior);
+ * com eles, uma página do resumo e o cursor da próxima.
+ */
+@AutoConfigureMockMvc
+class ProductAdminListTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void withoutPagingParametersReturnsFullProducts() throws Exception {
+        Product inactive = createProduct(false);
+        createProduct(true);
+
+        mockMvc.perform(get("/api/products/admin"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[*].id", hasItem(inactive.getId().toString())))
+                .andExpect(jsonPath("$[?(@.id == '" + inactive.getId() + "')].sizes.M").value(hasItem(3)))
+                .andExpect(jsonPath("$[?(@.id == '" + inactive.getId() + "')].images[0]")
+                        .value(hasItem("https://example.com/admin.png")));
+    }
+
+    @Test
+    void withLimitReturnsSummaryPage() throws Exception {
+        createProduct(true);
+        createProduct(true);
+
+        mockMvc.perform(get("/api/products/admin").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].stock").exists())
+                .andExpect(jsonPath("$[0].sizes").doesNotExist());
+    }
+
+    private Product createProduct(boolean active) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Admin");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/admin.png"));
+        product.setSizes(Map.of("M", 3));
+        product.setActive(active);
+        product.setCreatedAt(LocalDateTime.now());
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,37 @@
+package com.artilheiro.store.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Normalização do CPF gravado em {@code cpf_digits} (coluna com 11 caracteres). */
+class OrderTest {
+
+    @Test
+    void cpfDigitsRemovesFormatting() {
+        assertThat(Order.cpfDigits("123.456.789-09")).isEqualTo("12345678909");
+        assertThat(Order.cpfDigits(" 12345678909 ")).isEqualTo("12345678909");
+    }
+
+    @Test
+    void cpfDigitsIsNullUnlessExactlyElevenDigits() {
+        assertThat(Order.cpfDigits(null)).isNull();
+        assertThat(Order.cpfDigits("")).isNull();
+        assertThat(Order.cpfDigits("abc")).isNull();
+        assertThat(Order.cpfDigits("123.456.789-0")).isNull();
+        assertThat(Order.cpfDigits("123.456.789-091")).isNull();
+        assertThat(Order.cpfDigits("12.345.678/0001-95")).isNull();
+    }
+
+    @Test
+    void normalizeCpfNeverExceedsColumnLength() {
+        Order order = new Order();
+        order.setCpf("123.456.789-09 / 987.654.321-00");
+        order.normalizeCpf();
+        assertThat(order.getCpfDigits()).isNull();
+
+        order.setCpf("123.456.789-09");
+        order.normalizeCpf();
+        assertThat(order.getCpfDigits()).isEqualTo("12345678909");
+    }
+}
@@ -0,0 +1,140 @@
+package com.artilheiro.store.repository;
+
+import com.artilheiro.store.ArtilheiroStoreApplication;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.ProductSummaryQueries.SummaryOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Página da listagem do admin lida pela projeção {@link ProductSummaryQueriesImpl} (só as colunas da lista, primeira
+ * imagem e estoque total calculados no Postgres) e pela carga das entidades {@link Product}, com a miniatura e o
+ * estoque calculados em Java, como a listagem fazia antes.
+ * <p>
+ * Usa o banco de {@code DATABASE_URL}/{@code DATABASE_USERNAME}/{@code DATABASE_PASSWORD} (um banco descartável: os
+ * produtos de teste são inseridos e removidos) ou, sem essas variáveis, um Postgres do Testcontainers.
+ * Executar: {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main ProductSummaryBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSummaryBenchmark {
+
+    private static final String BENCHMARK_TEAM = "Benchmark Resumo";
+
+    @Param({"1000", "10000"})
+    public int products;
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private TransactionTemplate readTransaction;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        if (System.getenv("DATABASE_URL") == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            properties.put("DATABASE_URL", postgres.getJdbcUrl());
+            properties.put("DATABASE_USERNAME", postgres.getUsername());
+            properties.put("DATABASE_PASSWORD", postgres.getPassword());
+        }
+        properties.put("app.pagination.max-page-size", pageSize);
+        context = new SpringApplicationBuilder(ArtilheiroStoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        readTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readTransaction.setReadOnly(true);
+        seed();
+    }
+
+    /** Produtos inativos: entram na listagem do admin, mas não no catálogo em memória da vitrine. */
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "Camisa " + i, BENCHMARK_TEAM, "Liga " + (i % 8), "Clubes",
+                    BigDecimal.valueOf(100 + i % 300), "[\"https://example.com/" + i + "-1.png\",\"https://example.com/" + i
+                    + "-2.png\",\"https://example.com/" + i + "-3.png\"]",
+                    "{\"P\": 3, \"M\": 5, \"G\": 2, \"GG\": 1}", Timestamp.valueOf(now.minusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO product (id, name, team, liga, category, price, images, sizes, active, frete_gratis,
+                                     created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, false, false, ?, now(), 0)
+                """, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        try {
+            jdbcTemplate.update("DELETE FROM product WHERE team = ?", BENCHMARK_TEAM);
+            context.close();
+        } finally {
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    @Benchmark
+    public void projection(Blackhole blackhole) {
+        for (ProductSummary summary : productRepository.findSummaries(SummaryOrder.CREATED_AT_DESC, null, null, pageSize)) {
+            blackhole.consume(summary.image());
+            blackhole.consume(summary.stock());
+        }
+    }
+
+    @Benchmark
+    public void hydration(Blackhole blackhole) {
+        PageRequest page = PageRequest.of(0, pageSize, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        readTransaction.executeWithoutResult(status -> {
+            for (Product product : productRepository.findAll(page)) {
+                blackhole.consume(product.getImages().isEmpty() ? null : product.getImages().get(0));
+                blackhole.consume(product.getSizes().values().stream().mapToInt(Integer::intValue).sum());
+            }
+        });
+    }
+}
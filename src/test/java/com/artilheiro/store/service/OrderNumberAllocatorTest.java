@@ -0,0 +1,54 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sequence do ano ausente no checkout: é criada na transação do próprio pedido (sem segunda conexão), então some
+ * junto com um pedido que sofre rollback e é recriada pelo próximo.
+ */
+class OrderNumberAllocatorTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void missingSequenceIsCreatedInTheOrderTransaction() {
+        int year = LocalDate.now().getYear();
+        String sequence = "order_number_seq_" + year;
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + sequence);
+        // Instância nova: a verificação periódica ainda não passou por nenhum ano
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, transactionManager);
+        TransactionTemplate orderTransaction = new TransactionTemplate(transactionManager);
+
+        String rolledBack = orderTransaction.execute(status -> {
+            String number = allocator.next();
+            status.setRollbackOnly();
+            return number;
+        });
+        assertThat(rolledBack).startsWith("ART-" + year + "-");
+        assertThat(sequenceExists(sequence)).as("sequence criada no pedido que sofreu rollback").isFalse();
+
+        String committed = orderTransaction.execute(status -> allocator.next());
+        assertThat(committed).isEqualTo(rolledBack);
+        assertThat(sequenceExists(sequence)).isTrue();
+        String following = orderTransaction.execute(status -> allocator.next());
+        assertThat(following).isNotEqualTo(committed);
+    }
+
+    private boolean sequenceExists(String sequence) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_sequences WHERE sequencename = ?)", Boolean.class, sequence));
+    }
+}
@@ -0,0 +1,122 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.dto.order.OrderRequest;
+import com.artilheiro.store.dto.order.OrderUpdateRequest;
+import com.artilheiro.store.model.Order;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.OrderRepository;
+import com.artilheiro.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Mudanças de status pelo admin: cancelar devolve o estoque, reativar um pedido cancelado o reserva de novo. */
+class OrderStatusTransitionTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void reactivatingACancelledOrderReservesTheStockAgain() {
+        Product product = createProduct(2);
+        Order order = createOrder(product);
+        assertThat(stock(product)).isEqualTo(1);
+
+        updateStatus(order, "CANCELLED");
+        assertThat(stock(product)).isEqualTo(2);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().isStockReserved()).isFalse();
+
+        updateStatus(order, "RECEIVED");
+        Order reactivated = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(reactivated.getStatus()).isEqualTo(Order.OrderStatus.RECEIVED);
+        assertThat(reactivated.isStockReserved()).isTrue();
+        assertThat(stock(product)).isEqualTo(1);
+
+        // Outro status que não CANCELLED não mexe no estoque
+        updateStatus(order, "SHIPPED");
+        assertThat(stock(product)).isEqualTo(1);
+    }
+
+    @Test
+    void reactivationIsRefusedWhenTheStockWasSoldMeanwhile() {
+        Product product = createProduct(1);
+        Order order = createOrder(product);
+        updateStatus(order, "CANCELLED");
+        createOrder(product);
+        assertThat(stock(product)).isZero();
+
+        assertThatThrownBy(() -> updateStatus(order, "RECEIVED"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Estoque insuficiente");
+        Order unchanged = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(unchanged.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(unchanged.isStockReserved()).isFalse();
+        assertThat(stock(product)).isZero();
+    }
+
+    private void updateStatus(Order order, String status) {
+        OrderUpdateRequest request = new OrderUpdateRequest();
+        request.setStatus(status);
+        assertThat(orderService.updateOrder(order.getId(), request)).isPresent();
+    }
+
+    private Order createOrder(Product product) {
+        OrderRequest.CustomerDto customer = new OrderRequest.CustomerDto();
+        customer.setName("Maria Silva");
+        customer.setEmail("maria@example.com");
+        customer.setCpf("123.456.789-09");
+        OrderRequest.AddressDto address = new OrderRequest.AddressDto();
+        address.setCep("01001000");
+        address.setRua("Praça da Sé");
+        address.setNumero("1");
+        address.setCidade("São Paulo");
+        address.setEstado("SP");
+        OrderRequest.ItemDto item = new OrderRequest.ItemDto();
+        item.setProductId(product.getId().toString());
+        item.setName(product.getName());
+        item.setSize("M");
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        OrderRequest request = new OrderRequest();
+        request.setCustomer(customer);
+        request.setAddress(address);
+        request.setItems(List.of(item));
+        request.setTotal(product.getPrice());
+        String orderNumber = orderService.create(request).getOrderId();
+        return orderRepository.findByOrderNumber(orderNumber).orElseThrow();
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getSizes().get("M");
+    }
+
+    private Product createProduct(int stock) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Reativação");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/reativacao.png"));
+        product.setSizes(Map.of("M", stock));
+        product.setActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return productRepository.save(product);
+    }
+}
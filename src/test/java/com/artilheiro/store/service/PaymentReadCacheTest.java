@@ -0,0 +1,142 @@
+package com.artilheiro.store.service;
+
+import com.mercadopago.resources.payment.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Invalidação por pagamento: só descarta cargas em andamento do próprio pagamento, e consultas feitas depois dela não
+ * aguardam uma carga anterior.
+ */
+class PaymentReadCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentReadCache cache = new PaymentReadCache(meterRegistry,
+            Duration.ofMinutes(1), Duration.ofMinutes(10), 100);
+
+    @Test
+    void invalidationOfAnotherPaymentDoesNotBlockCaching() throws Exception {
+        Payment pending = payment("pending");
+        cache.get(1L, () -> {
+            cache.invalidate(2L);
+            return pending;
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        Payment cached = cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return payment("approved");
+        });
+        assertThat(cached).isSameAs(pending);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() throws Exception {
+        cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return payment("pending");
+        });
+
+        Payment approved = payment("approved");
+        assertThat(cache.get(1L, () -> approved)).isSameAs(approved);
+        assertThat(cache.get(1L, () -> payment("refunded"))).isSameAs(approved);
+    }
+
+    @Test
+    void refreshReplacesCachedPayment() throws Exception {
+        cache.get(1L, () -> payment("pending"));
+        Payment approved = payment("approved");
+
+        assertThat(cache.refresh(1L, () -> approved)).isSameAs(approved);
+        assertThat(cache.get(1L, () -> payment("pending"))).isSameAs(approved);
+    }
+
+    @Test
+    void callAfterInvalidationDoesNotJoinOlderLoad() throws Exception {
+        CountDownLatch oldLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseOldLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Payment> oldLoad = executor.submit(() -> cache.get(1L, () -> {
+                oldLoadStarted.countDown();
+                await(releaseOldLoad);
+                return payment("pending");
+            }));
+            assertThat(oldLoadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Webhook chegou durante a carga: a consulta seguinte não pode receber o status antigo dela
+            cache.invalidate(1L);
+            Payment approved = payment("approved");
+            assertThat(cache.get(1L, () -> approved)).isSameAs(approved);
+
+            releaseOldLoad.countDown();
+            assertThat(oldLoad.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo("pending");
+            assertThat(cache.get(1L, () -> payment("refunded"))).isSameAs(approved);
+        } finally {
+            releaseOldLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCallsShareLoadStartedAfterInvalidation() throws Exception {
+        cache.invalidate(1L);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        Payment approved = payment("approved");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Payment> first = executor.submit(() -> cache.get(1L, () -> {
+                loadStarted.countDown();
+                await(releaseLoad);
+                return approved;
+            }));
+            assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            AtomicInteger loads = new AtomicInteger();
+            Future<Payment> second = executor.submit(() -> cache.get(1L, () -> {
+                loads.incrementAndGet();
+                return payment("pending");
+            }));
+            while (meterRegistry.get("mercadopago.payment.cache").tag("result", "coalesced").counter().count() == 0) {
+                Thread.sleep(10);
+            }
+
+            releaseLoad.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS)).isSameAs(approved);
+            assertThat(second.get(10, TimeUnit.SECONDS)).isSameAs(approved);
+            assertThat(loads).hasValue(0);
+        } finally {
+            releaseLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /** Espera dentro do loader, que só declara as exceções do Mercado Pago. */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Payment payment(String status) {
+        Payment payment = mock(Payment.class);
+        when(payment.getStatus()).thenReturn(status);
+        return payment;
+    }
+}
@@ -0,0 +1,184 @@
+package com.artilheiro.store.service;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.dto.order.OrderRequest;
+import com.artilheiro.store.model.Order;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.OrderRepository;
+import com.artilheiro.store.repository.ProductRepository;
+import com.artilheiro.store.service.events.OrderStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cancelamento de pedidos vencidos: prazo por meio de pagamento, devolução do estoque, evento de status e pedidos
+ * travados por outra transação pulados (SKIP LOCKED), nunca esperados.
+ */
+@RecordApplicationEvents
+class PendingOrderReaperTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PendingOrderReaper reaper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void cancelsOnlyOrdersPastTheirPaymentMethodDeadline() {
+        Product product = createProduct(10);
+        Order unpaid = createOrder(product, null, Duration.ofHours(25));
+        Order pix = createOrder(product, "pix", Duration.ofHours(25));
+        Order recentPix = createOrder(product, "pix", Duration.ofHours(23));
+        Order boleto = createOrder(product, "bolbradesco", Duration.ofDays(3));
+        Order expiredBoleto = createOrder(product, "bolbradesco", Duration.ofDays(8));
+        Order card = createOrder(product, "visa", Duration.ofHours(25));
+        Order paid = createOrder(product, "pix", Duration.ofHours(25));
+        jdbcTemplate.update("UPDATE orders SET status = 'RECEIVED' WHERE id = ?", paid.getId());
+        assertThat(stock(product)).isEqualTo(3);
+
+        reaper.reapExpired();
+
+        assertThat(status(unpaid)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(status(pix)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(status(recentPix)).isEqualTo(Order.OrderStatus.PAYMENT_PENDING);
+        assertThat(status(boleto)).isEqualTo(Order.OrderStatus.PAYMENT_PENDING);
+        assertThat(status(expiredBoleto)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(status(card)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(status(paid)).isEqualTo(Order.OrderStatus.RECEIVED);
+
+        assertThat(stock(product)).as("estoque dos 4 pedidos cancelados devolvido").isEqualTo(7);
+        assertThat(orderRepository.findById(pix.getId()).orElseThrow().isStockReserved()).isFalse();
+        assertThat(events.stream(OrderStatusChangedEvent.class))
+                .filteredOn(event -> event.orderNumber().equals(pix.getOrderNumber()))
+                .containsExactly(new OrderStatusChangedEvent(pix.getOrderNumber(), Order.OrderStatus.CANCELLED));
+
+        reaper.reapExpired();
+        assertThat(stock(product)).as("estoque devolvido uma única vez").isEqualTo(7);
+    }
+
+    @Test
+    void skipsOrdersLockedByAnotherTransaction() throws Exception {
+        Product product = createProduct(10);
+        Order locked = createOrder(product, "pix", Duration.ofHours(25));
+        Order free = createOrder(product, "pix", Duration.ofHours(25));
+
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Ex.: webhook processando o pagamento do pedido
+            Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT id FROM orders WHERE id = ? FOR UPDATE", locked.getId());
+                lockHeld.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(lockHeld.await(10, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            reaper.reapExpired();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).as("não espera o lock").isLessThan(Duration.ofSeconds(2));
+            assertThat(status(locked)).isEqualTo(Order.OrderStatus.PAYMENT_PENDING);
+            assertThat(status(free)).isEqualTo(Order.OrderStatus.CANCELLED);
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        reaper.reapExpired();
+        assertThat(status(locked)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(stock(product)).isEqualTo(10);
+    }
+
+    private Order createOrder(Product product, String paymentMethodId, Duration age) {
+        OrderRequest.CustomerDto customer = new OrderRequest.CustomerDto();
+        customer.setName("Maria Silva");
+        customer.setEmail("maria@example.com");
+        customer.setCpf("123.456.789-09");
+        OrderRequest.AddressDto address = new OrderRequest.AddressDto();
+        address.setCep("01001000");
+        address.setRua("Praça da Sé");
+        address.setNumero("1");
+        address.setCidade("São Paulo");
+        address.setEstado("SP");
+        OrderRequest.ItemDto item = new OrderRequest.ItemDto();
+        item.setProductId(product.getId().toString());
+        item.setName(product.getName());
+        item.setSize("M");
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        OrderRequest request = new OrderRequest();
+        request.setCustomer(customer);
+        request.setAddress(address);
+        request.setItems(List.of(item));
+        request.setTotal(product.getPrice());
+        String orderNumber = orderService.create(request).getOrderId();
+        jdbcTemplate.update("UPDATE orders SET payment_method_id = ?, created_at = ? WHERE order_number = ?",
+                paymentMethodId, Timestamp.valueOf(LocalDateTime.now().minus(age)), orderNumber);
+        return orderRepository.findByOrderNumber(orderNumber).orElseThrow();
+    }
+
+    private Order.OrderStatus status(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow().getStatus();
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getSizes().get("M");
+    }
+
+    private Product createProduct(int stock) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Vencimento");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/vencimento.png"));
+        product.setSizes(Map.of("M", stock));
+        product.setActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,68 @@
+package com.artilheiro.store.service.catalog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtros típicos da vitrine avaliados pelo {@link ProductFilterIndex} (bitmaps) e pela filtragem produto a produto,
+ * que é o que a antiga Specification fazia por linha (hoje a vitrine não consulta mais o banco para listar).
+ * <p>
+ * Executar: {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main CatalogFilterBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CatalogFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int products;
+
+    private List<CatalogEntry> entries;
+    private ProductFilterIndex index;
+    private List<FilterExpression> filters;
+
+    @Setup
+    public void setUp() {
+        entries = CatalogFixtures.entries(new Random(42L), products);
+        index = new ProductFilterIndex(entries);
+        filters = List.of(
+                ProductFilter.of(null, "Time 7", null, null).toExpression(),
+                ProductFilter.of(null, null, "Premier League", null, List.of("M", "G"), null, null).toExpression(),
+                ProductFilter.of("Clubes", null, "Brasileirão", null, null, true, List.of("100_200", "200_300")).toExpression(),
+                ProductFilter.of("Retrô", null, null, null, List.of("GG"), false, List.of("acima_300")).toExpression());
+    }
+
+    @Benchmark
+    public void bitmap(Blackhole blackhole) {
+        for (FilterExpression filter : filters) {
+            index.evaluate(filter).forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        for (FilterExpression filter : filters) {
+            for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+                if (CatalogFixtures.matches(entries.get(ordinal), filter)) blackhole.consume(ordinal);
+            }
+        }
+    }
+}
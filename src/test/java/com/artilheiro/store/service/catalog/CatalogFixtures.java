@@ -0,0 +1,113 @@
+package com.artilheiro.store.service.catalog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/** Catálogos e expressões de filtro aleatórios (testes e benchmark do filtro por bitmaps). */
+final class CatalogFixtures {
+
+    static final List<String> CATEGORIES = List.of("Clubes", "Seleções", "Retrô", "Treino");
+    static final List<String> LIGAS = List.of("Brasileirão", "Premier League", "La Liga", "Serie A", "Bundesliga");
+    static final List<String> SIZES = List.of("P", "M", "G", "GG", "XGG");
+    static final int TEAMS = 60;
+
+    private CatalogFixtures() {
+    }
+
+    /** Produtos com valores repetidos em caixa/espaços diferentes e estoque zerado em parte dos tamanhos. */
+    static List<CatalogEntry> entries(Random random, int count) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<CatalogEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (String size : SIZES) {
+                if (random.nextInt(3) > 0) sizes.put(random.nextInt(10) == 0 ? size.toLowerCase() : size, random.nextInt(4));
+            }
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(400)).add(new BigDecimal("0.90"));
+            BigDecimal promoPrice = random.nextInt(5) == 0 ? price.subtract(BigDecimal.valueOf(40)) : null;
+            entries.add(new CatalogEntry(
+                    UUID.randomUUID(),
+                    "Camisa " + i,
+                    vary(random, team(random.nextInt(TEAMS))),
+                    vary(random, pick(random, LIGAS)),
+                    vary(random, pick(random, CATEGORIES)),
+                    price,
+                    promoPrice,
+                    List.of(),
+                    sizes,
+                    false,
+                    now.minusMinutes(i),
+                    0L,
+                    null));
+        }
+        return entries;
+    }
+
+    /** Expressão aleatória com termos (inclusive valores inexistentes), AND, OR e NOT aninhados. */
+    static FilterExpression expression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return term(random);
+        }
+        int operands = random.nextInt(4);
+        List<FilterExpression> children = new ArrayList<>(operands);
+        for (int i = 0; i < operands; i++) {
+            children.add(expression(random, depth - 1));
+        }
+        return switch (random.nextInt(3)) {
+            case 0 -> new FilterExpression.And(children);
+            case 1 -> new FilterExpression.Or(children);
+            default -> FilterExpression.not(expression(random, depth - 1));
+        };
+    }
+
+    static FilterExpression term(Random random) {
+        FilterAttribute attribute = FilterAttribute.values()[random.nextInt(FilterAttribute.values().length)];
+        String value = switch (attribute) {
+            case CATEGORY -> pick(random, CATEGORIES);
+            case TEAM -> team(random.nextInt(TEAMS + 5));
+            case LIGA -> pick(random, LIGAS);
+            case SIZE -> pick(random, SIZES);
+            case AVAILABILITY -> FilterAttribute.IN_STOCK;
+            case PRICE_BAND -> PriceBand.values()[random.nextInt(PriceBand.values().length)].param();
+        };
+        return FilterExpression.term(attribute, vary(random, value));
+    }
+
+    /** Avaliação direta, produto a produto: a referência que os bitmaps devem reproduzir. */
+    static boolean matches(CatalogEntry entry, FilterExpression expression) {
+        if (expression instanceof FilterExpression.Term term) {
+            String key = CatalogEntry.key(term.value());
+            return term.attribute().valuesOf(entry).stream()
+                    .anyMatch(value -> value != null && !value.isBlank() && CatalogEntry.key(value).equals(key));
+        }
+        if (expression instanceof FilterExpression.And and) {
+            return and.operands().stream().allMatch(operand -> matches(entry, operand));
+        }
+        if (expression instanceof FilterExpression.Or or) {
+            return or.operands().stream().anyMatch(operand -> matches(entry, operand));
+        }
+        return !matches(entry, ((FilterExpression.Not) expression).operand());
+    }
+
+    private static String team(int index) {
+        return "Time " + index;
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String vary(Random random, String value) {
+        return switch (random.nextInt(6)) {
+            case 0 -> value.toUpperCase();
+            case 1 -> " " + value + " ";
+            default -> value;
+        };
+    }
+}
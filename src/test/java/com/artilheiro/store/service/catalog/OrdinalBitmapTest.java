@@ -0,0 +1,88 @@
+package com.artilheiro.store.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara as operações do {@link OrdinalBitmap} com um {@link BitSet} em conjuntos aleatórios, cobrindo as
+ * combinações de representação esparsa e densa.
+ */
+class OrdinalBitmapTest {
+
+    private static final int[] UNIVERSES = {0, 1, 63, 64, 65, 1000, 4099};
+    private static final double[] DENSITIES = {0, 0.005, 0.03, 0.2, 0.9, 1};
+
+    private final Random random = new Random(20240617L);
+
+    @Test
+    void operationsMatchBitSet() {
+        for (int universe : UNIVERSES) {
+            for (int round = 0; round < 20; round++) {
+                BitSet left = randomSet(universe, DENSITIES[random.nextInt(DENSITIES.length)]);
+                BitSet right = randomSet(universe, DENSITIES[random.nextInt(DENSITIES.length)]);
+                OrdinalBitmap a = toBitmap(universe, left);
+                OrdinalBitmap b = toBitmap(universe, right);
+
+                assertSame(universe, a, left);
+                assertSame(universe, a.and(b), combine(left, right, BitSet::and));
+                assertSame(universe, a.or(b), combine(left, right, BitSet::or));
+                BitSet complement = (BitSet) left.clone();
+                complement.flip(0, universe);
+                assertSame(universe, a.not(), complement);
+                assertThat(a.intersectionSize(b)).isEqualTo(combine(left, right, BitSet::and).cardinality());
+            }
+        }
+    }
+
+    @Test
+    void builderMatchesOfSortedAndFull() {
+        for (int universe : UNIVERSES) {
+            BitSet set = randomSet(universe, 0.5);
+            OrdinalBitmap.Builder builder = new OrdinalBitmap.Builder(universe);
+            set.stream().forEach(builder::add);
+            assertSame(universe, builder.build(), set);
+
+            BitSet all = new BitSet();
+            all.set(0, universe);
+            assertSame(universe, OrdinalBitmap.full(universe), all);
+            assertSame(universe, OrdinalBitmap.empty(universe), new BitSet());
+        }
+    }
+
+    private BitSet randomSet(int universe, double density) {
+        BitSet set = new BitSet(universe);
+        for (int i = 0; i < universe; i++) {
+            if (random.nextDouble() < density) set.set(i);
+        }
+        return set;
+    }
+
+    private static OrdinalBitmap toBitmap(int universe, BitSet set) {
+        int[] ordinals = set.stream().toArray();
+        return OrdinalBitmap.ofSorted(universe, ordinals, ordinals.length);
+    }
+
+    private static BitSet combine(BitSet left, BitSet right, BiConsumer<BitSet, BitSet> operation) {
+        BitSet result = (BitSet) left.clone();
+        operation.accept(result, right);
+        return result;
+    }
+
+    private static void assertSame(int universe, OrdinalBitmap bitmap, BitSet expected) {
+        List<Integer> ordinals = new ArrayList<>();
+        bitmap.forEach(ordinals::add);
+        assertThat(ordinals).containsExactlyElementsOf(expected.stream().boxed().toList());
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+        for (int ordinal = -1; ordinal <= universe; ordinal++) {
+            assertThat(bitmap.contains(ordinal)).isEqualTo(ordinal >= 0 && expected.get(ordinal));
+        }
+    }
+}
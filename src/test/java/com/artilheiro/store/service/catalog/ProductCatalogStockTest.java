@@ -0,0 +1,77 @@
+package com.artilheiro.store.service.catalog;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Baixas de estoque por pedidos: a versão do catálogo (e com ela o cache das listagens e os ETags) só muda quando
+ * os tamanhos disponíveis de um produto mudam, e só esse produto é substituído no snapshot.
+ */
+class ProductCatalogStockTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void versionChangesOnlyWhenAvailabilityChanges() {
+        Product product = createProduct(Map.of("M", 2, "G", 1));
+        // Aplica mudanças de estoque pendentes de outros testes antes de comparar versões
+        productCatalog.scheduledReload();
+        productCatalog.reload();
+        CatalogSnapshot loaded = productCatalog.current();
+
+        sell(product.getId(), "M");
+        productCatalog.applyStockChanges();
+        assertThat(productCatalog.current()).as("só quantidade mudou").isSameAs(loaded);
+
+        sell(product.getId(), "M");
+        productCatalog.applyStockChanges();
+        CatalogSnapshot patched = productCatalog.current();
+        assertThat(patched.version()).isGreaterThan(loaded.version());
+        assertThat(patched.get(product.getId()).orElseThrow().sizes()).containsEntry("M", 0).containsEntry("G", 1);
+        assertThat(patched.size()).isEqualTo(loaded.size());
+    }
+
+    private void sell(UUID productId, String size) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(productRepository.decrementStock(productId, size, 1)).isTrue();
+            productCatalog.onStockChanged(new StockChangedEvent(Set.of(productId)));
+        });
+    }
+
+    private Product createProduct(Map<String, Integer> sizes) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Disponibilidade");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/disponibilidade.png"));
+        product.setSizes(new LinkedHashMap<>(sizes));
+        product.setActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return productRepository.save(product);
+    }
+}
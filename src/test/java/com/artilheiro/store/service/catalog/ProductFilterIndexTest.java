@@ -0,0 +1,60 @@
+package com.artilheiro.store.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara o {@link ProductFilterIndex} com a filtragem direta (força bruta) em catálogos e expressões aleatórios.
+ */
+class ProductFilterIndexTest {
+
+    private final Random random = new Random(7L);
+
+    @Test
+    void evaluateMatchesBruteForce() {
+        for (int size : new int[]{0, 1, 17, 300, 5000}) {
+            List<CatalogEntry> entries = CatalogFixtures.entries(random, size);
+            ProductFilterIndex index = new ProductFilterIndex(entries);
+            for (int round = 0; round < 200; round++) {
+                FilterExpression expression = CatalogFixtures.expression(random, 4);
+                List<Integer> actual = new ArrayList<>();
+                index.evaluate(expression).forEach(actual::add);
+
+                List<Integer> expected = new ArrayList<>();
+                for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+                    if (CatalogFixtures.matches(entries.get(ordinal), expression)) expected.add(ordinal);
+                }
+                assertThat(actual).as("%s sobre %d produtos", expression, size).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void countsMatchBruteForce() {
+        List<CatalogEntry> entries = CatalogFixtures.entries(random, 2000);
+        ProductFilterIndex index = new ProductFilterIndex(entries);
+        for (int round = 0; round < 50; round++) {
+            FilterExpression expression = CatalogFixtures.expression(random, 3);
+            OrdinalBitmap within = index.evaluate(expression);
+            for (FilterAttribute attribute : FilterAttribute.values()) {
+                Map<String, Integer> expected = new TreeMap<>();
+                within.forEach(ordinal -> attribute.valuesOf(entries.get(ordinal)).stream()
+                        .filter(value -> value != null && !value.isBlank())
+                        .map(CatalogEntry::key)
+                        .distinct()
+                        .forEach(key -> expected.merge(key, 1, Integer::sum)));
+
+                Map<String, Integer> actual = new TreeMap<>();
+                index.counts(attribute, within).forEach((label, count) -> actual.put(CatalogEntry.key(label), count));
+                assertThat(actual).as("%s em %s", attribute, expression).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.artilheiro.store.service.events;
+
+import com.artilheiro.store.model.Order;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitterReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Conexões de eventos do pedido: limite por instância, remoção de conexões encerradas, status antigo não reenviado e
+ * verificação periódica em blocos de pedidos.
+ */
+class OrderEventBroadcasterTest {
+
+    private static final String ORDER = "ART-2026-0001";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+
+    @Test
+    void subscribersBeyondTheLimitAreRefusedUntilOneLeaves() throws Exception {
+        OrderEventBroadcaster broadcaster = broadcaster(2);
+        Connection first = connect(broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING));
+        broadcaster.subscribe("ART-2026-0002", Order.OrderStatus.PAYMENT_PENDING);
+
+        assertThatThrownBy(() -> broadcaster.subscribe("ART-2026-0003", Order.OrderStatus.PAYMENT_PENDING))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Limite de conexões");
+        assertThatThrownBy(() -> broadcaster.subscribe("ART-2026-0003", Order.OrderStatus.PAYMENT_PENDING))
+                .as("recusas não consomem vagas")
+                .isInstanceOf(IllegalStateException.class);
+
+        first.complete();
+        broadcaster.subscribe("ART-2026-0003", Order.OrderStatus.PAYMENT_PENDING);
+    }
+
+    @Test
+    void timedOutAndFailedConnectionsAreRemoved() throws Exception {
+        OrderEventBroadcaster broadcaster = broadcaster(2);
+        Connection timedOut = connect(broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING));
+        Connection failed = connect(broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING));
+
+        timedOut.timeout();
+        failed.error(new IOException("Broken pipe"));
+
+        broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING);
+        broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING);
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(ORDER, Order.OrderStatus.RECEIVED));
+        assertThat(timedOut.statuses()).containsExactly("PAYMENT_PENDING");
+        assertThat(failed.statuses()).containsExactly("PAYMENT_PENDING");
+    }
+
+    @Test
+    void connectionThatFailsToSendIsRemoved() throws Exception {
+        OrderEventBroadcaster broadcaster = broadcaster(1);
+        SseEmitter emitter = broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING);
+        // Encerrada sem passar pelos callbacks (ex.: cliente saiu): o próximo envio falha e remove o assinante
+        emitter.complete();
+
+        broadcaster.heartbeat();
+
+        broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING);
+    }
+
+    @Test
+    void stalePaymentPendingIsNotSentAfterAnotherStatus() throws Exception {
+        OrderEventBroadcaster broadcaster = broadcaster(10);
+        Connection connection = connect(broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING));
+
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(ORDER, Order.OrderStatus.RECEIVED));
+        // Verificação periódica que leu o pedido antes do commit
+        pollReturns(Order.OrderStatus.PAYMENT_PENDING);
+        broadcaster.pollStatuses();
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(ORDER, Order.OrderStatus.RECEIVED));
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent(ORDER, Order.OrderStatus.SHIPPED));
+        broadcaster.onStatusChanged(new OrderStatusChangedEvent("ART-2026-0002", Order.OrderStatus.CANCELLED));
+
+        assertThat(connection.statuses()).containsExactly("PAYMENT_PENDING", "RECEIVED", "SHIPPED");
+    }
+
+    @Test
+    void pollQueriesSubscribedOrdersInChunks() {
+        OrderEventBroadcaster broadcaster = broadcaster(2000);
+        for (int i = 0; i < 1001; i++) {
+            broadcaster.subscribe("ART-2026-" + i, Order.OrderStatus.PAYMENT_PENDING);
+        }
+
+        broadcaster.pollStatuses();
+
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, times(3)).query(anyString(), params.capture(), any(RowCallbackHandler.class));
+        assertThat(params.getAllValues())
+                .extracting(source -> ((List<?>) source.getValue("numbers")).size())
+                .containsExactlyInAnyOrder(500, 500, 1);
+    }
+
+    @Test
+    void pollFailureIsLoggedNotThrown() {
+        OrderEventBroadcaster broadcaster = broadcaster(10);
+        broadcaster.subscribe(ORDER, Order.OrderStatus.PAYMENT_PENDING);
+        doAnswer(invocation -> {
+            throw new org.springframework.dao.QueryTimeoutException("timeout");
+        }).when(jdbcTemplate).query(anyString(), any(MapSqlParameterSource.class), any(RowCallbackHandler.class));
+
+        broadcaster.pollStatuses();
+    }
+
+    private OrderEventBroadcaster broadcaster(int maxSubscribers) {
+        return new OrderEventBroadcaster(jdbcTemplate, Duration.ofMinutes(30), maxSubscribers);
+    }
+
+    /** A consulta periódica devolve o pedido {@link #ORDER} com o status dado. */
+    private void pollReturns(Order.OrderStatus status) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("order_number")).thenReturn(ORDER);
+            when(rs.getString("status")).thenReturn(status.name());
+            invocation.<RowCallbackHandler>getArgument(2).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(MapSqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    /** Liga o emitter a uma resposta, como o Spring MVC faz ao devolvê-lo do controller. */
+    private static Connection connect(SseEmitter emitter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        WebAsyncUtils.getAsyncManager(webRequest).setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        MethodParameter returnType = new MethodParameter(
+                OrderEventBroadcaster.class.getMethod("subscribe", String.class, Order.OrderStatus.class), -1);
+        new ResponseBodyEmitterReturnValueHandler(
+                List.of(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter()))
+                .handleReturnValue(emitter, returnType, new ModelAndViewContainer(), webRequest);
+        return new Connection(request, response, emitter);
+    }
+
+    private record Connection(MockHttpServletRequest request, MockHttpServletResponse response, SseEmitter emitter) {
+
+        /** Status enviados, na ordem. */
+        List<String> statuses() throws Exception {
+            return response.getContentAsString().lines()
+                    .filter(line -> line.startsWith("data:"))
+                    .map(line -> line.replaceAll(".*\"status\":\"([A-Z_]+)\".*", "$1"))
+                    .toList();
+        }
+
+        void complete() throws Exception {
+            for (AsyncListener listener : asyncContext().getListeners()) {
+                listener.onComplete(new AsyncEvent(asyncContext()));
+            }
+        }
+
+        void timeout() throws Exception {
+            for (AsyncListener listener : asyncContext().getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext()));
+            }
+        }
+
+        void error(Throwable error) throws Exception {
+            for (AsyncListener listener : asyncContext().getListeners()) {
+                listener.onError(new AsyncEvent(asyncContext(), error));
+            }
+        }
+
+        private MockAsyncContext asyncContext() {
+            return (MockAsyncContext) request.getAsyncContext();
+        }
+    }
+}
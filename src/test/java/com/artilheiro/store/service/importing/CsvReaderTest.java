@@ -0,0 +1,95 @@
+package com.artilheiro.store.service.importing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Leitura de CSV (RFC 4180) registro a registro, com a linha de início de cada registro. */
+class CsvReaderTest {
+
+    @Test
+    void readsPlainFields() throws IOException {
+        assertThat(readAll("a,b,c\n1,2,3\n")).containsExactly(List.of("a", "b", "c"), List.of("1", "2", "3"));
+    }
+
+    @Test
+    void quotedFieldsKeepDelimitersAndLineBreaks() throws IOException {
+        CsvReader csv = reader("name,desc\n\"Camisa, Home\",\"linha 1\nlinha 2\"\nfim,x\n");
+
+        assertThat(csv.next()).containsExactly("name", "desc");
+        assertThat(csv.next()).containsExactly("Camisa, Home", "linha 1\nlinha 2");
+        assertThat(csv.recordLine()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("fim", "x");
+        assertThat(csv.recordLine()).as("linha após o campo com quebra de linha").isEqualTo(4);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void doubledQuotesAreEscapedQuotes() throws IOException {
+        assertThat(readAll("\"Camisa \"\"Retrô\"\"\",\"\"\"\"\n"))
+                .containsExactly(List.of("Camisa \"Retrô\"", "\""));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        assertThat(readAll("a\"b,c\n")).containsExactly(List.of("a\"b", "c"));
+    }
+
+    @Test
+    void unclosedQuoteFailsWithRecordLine() throws IOException {
+        CsvReader csv = reader("a,b\n\"aberto,b\n");
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Aspas não fechadas")
+                .hasMessageContaining("linha 2");
+    }
+
+    @Test
+    void unclosedQuoteStopsAtMaxRecordSize() {
+        CsvReader csv = new CsvReader(new StringReader("\"" + "x".repeat(100) + "\n" + "y".repeat(100)), ',', 50);
+
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("excede 50 caracteres");
+    }
+
+    @Test
+    void crlfLineEndingsAndBlankLines() throws IOException {
+        CsvReader csv = reader("a;b\r\n\r\n1;\"2\r\n3\"\r\n4;5");
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThat(csv.next()).containsExactly("1", "2\r\n3");
+        assertThat(csv.recordLine()).as("linha em branco é pulada, mas contada").isEqualTo(3);
+        assertThat(csv.next()).containsExactly("4", "5");
+        assertThat(csv.recordLine()).isEqualTo(5);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void emptyFieldsArePreserved() throws IOException {
+        assertThat(readAll(",,\n\"\",x,\n")).containsExactly(List.of("", "", ""), List.of("", "x", ""));
+    }
+
+    private static CsvReader reader(String content) {
+        char delimiter = content.indexOf(';') >= 0 ? ';' : ',';
+        return new CsvReader(new StringReader(content), delimiter, 1024);
+    }
+
+    private static List<List<String>> readAll(String content) throws IOException {
+        CsvReader csv = reader(content);
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,193 @@
+package com.artilheiro.store.service.importing;
+
+import com.artilheiro.store.dto.product.ProductImportResponse;
+import com.artilheiro.store.dto.product.ProductImportResponse.RowError;
+import com.artilheiro.store.service.catalog.ProductCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Importação em lote: linhas inválidas são reportadas com a linha do arquivo e não interrompem as demais. */
+class ProductImportServiceTest {
+
+    private static final jakarta.validation.ValidatorFactory VALIDATOR_FACTORY =
+            Validation.buildDefaultValidatorFactory();
+
+    private static final String CSV_HEADER = "name,team,liga,category,price,sizes\n";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductCatalog productCatalog = mock(ProductCatalog.class);
+    /** Parâmetros de cada lote gravado (o serviço reaproveita a lista depois do batchUpdate). */
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void captureBatches() {
+        doAnswer(invocation -> {
+            List<Object[]> params = invocation.getArgument(1);
+            batches.add(List.copyOf(params));
+            return new int[params.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void invalidCsvRowsAreReportedAndTheOthersImported() throws IOException {
+        ProductImportResponse result = service(500).importProducts(body(CSV_HEADER
+                + "Camisa Home,Flamengo,Brasileirão,Clubes,299.90,P:3|M:5\n"
+                + ",Palmeiras,Brasileirão,Clubes,-1,P:1\n"
+                + "Camisa Away,Flamengo,Brasileirão,Clubes,279.90,G:2\n"
+                + "Camisa Third,Flamengo,Brasileirão\n"
+                + "Camisa Retrô,Vasco,Brasileirão,Retrô,abc,P:1\n"), ProductImportService.Format.CSV);
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(RowError::getLine).containsExactly(3L, 5L, 6L);
+        assertThat(result.getErrors().get(0).getMessage())
+                .contains("name: Nome é obrigatório", "price: Preço deve ser positivo");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Esperadas 6 colunas, encontradas 3");
+        assertThat(result.getErrors().get(2).getMessage()).contains("price: valor numérico inválido");
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(params -> params[1]).containsExactly("Camisa Home", "Camisa Away");
+        assertThat(batches.get(0).get(0)[5]).isEqualTo(new BigDecimal("299.90"));
+        assertThat(batches.get(0).get(0)[8]).isEqualTo("{\"P\":3,\"M\":5}");
+        verify(productCatalog).nextVersion();
+        verify(productCatalog).reload();
+    }
+
+    @Test
+    void semicolonCsvWithQuotedFieldsAndDecimalComma() throws IOException {
+        ProductImportResponse result = service(500).importProducts(body(
+                "name;team;liga;category;price;promo_price;sizes;images\r\n"
+                        + "\"Camisa \"\"Manto\"\"; 2024\";Flamengo;Brasileirão;Clubes;299,90;249,90;P:3|M:0;"
+                        + "https://a.example/1.png|https://a.example/2.png\r\n"), ProductImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).isEmpty();
+        Object[] params = batches.get(0).get(0);
+        assertThat(params[1]).isEqualTo("Camisa \"Manto\"; 2024");
+        assertThat(params[5]).isEqualTo(new BigDecimal("299.90"));
+        assertThat(params[6]).isEqualTo(new BigDecimal("249.90"));
+        assertThat(params[7]).isEqualTo("[\"https://a.example/1.png\",\"https://a.example/2.png\"]");
+    }
+
+    @Test
+    void unclosedQuoteKeepsRowsReadBeforeIt() throws IOException {
+        ProductImportResponse result = service(500).importProducts(body(CSV_HEADER
+                + "Camisa Home,Flamengo,Brasileirão,Clubes,299.90,P:3\n"
+                + "\"Camisa Away,Flamengo,Brasileirão,Clubes,279.90,G:2\n"), ProductImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getMessage())
+                .contains("Aspas não fechadas a partir da linha 3")
+                .endsWith("Importação interrompida.");
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void missingRequiredColumnsRejectTheFile() {
+        assertThatThrownBy(() -> service(500).importProducts(body("name,team,price\n"), ProductImportService.Format.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("liga, category, sizes");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void ndjsonRowsAreParsedAndValidatedPerLine() throws IOException {
+        ProductImportResponse result = service(500).importProducts(body("""
+                {"name":"Camisa Home","team":"Flamengo","liga":"Brasileirão","category":"Clubes","price":299.90,"sizes":{"P":3},"images":["https://a.example/1.png"]}
+
+                {"name":"Camisa Away","team":"Flamengo",
+                {"name":"Camisa Third","team":"Flamengo","liga":"Brasileirão","category":"Clubes","price":279.90,"sizes":{"M":-1}}
+                {"name":"Camisa Retrô","team":"Vasco","liga":"Brasileirão","category":"Retrô","price":199.90,"sizes":{"G":1},"active":false}
+                """), ProductImportService.Format.NDJSON);
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(RowError::getLine).containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("JSON inválido");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("sizes: quantidade inválida para M");
+        assertThat(batches.get(0)).extracting(params -> params[1]).containsExactly("Camisa Home", "Camisa Retrô");
+        assertThat(batches.get(0).get(1)[9]).isEqualTo(false);
+    }
+
+    @Test
+    void rowsAreWrittenInBatchesAndAFailedBatchDoesNotStopTheNextOnes() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicado"))
+                .thenAnswer(invocation -> new int[((List<?>) invocation.getArgument(1)).size()]);
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 5; i++) {
+            csv.append("Camisa ").append(i).append(",Flamengo,Brasileirão,Clubes,299.90,P:1\n");
+        }
+
+        ProductImportResponse result = service(2).importProducts(body(csv.toString()), ProductImportService.Format.CSV);
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(RowError::getLine).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Erro ao gravar lote");
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        verify(productCatalog).reload();
+    }
+
+    @Test
+    void reportedErrorsAreCapped() throws IOException {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 4; i++) {
+            csv.append(",Flamengo,Brasileirão,Clubes,299.90,P:1\n");
+        }
+
+        ProductImportResponse result = new ProductImportService(jdbcTemplate, mock(PlatformTransactionManager.class),
+                productCatalog, validator(), new ObjectMapper(), 500, 2)
+                .importProducts(body(csv.toString()), ProductImportService.Format.CSV);
+
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.isErrorsTruncated()).isTrue();
+        verify(productCatalog, never()).reload();
+    }
+
+    private ProductImportService service(int batchSize) {
+        return new ProductImportService(jdbcTemplate, mock(PlatformTransactionManager.class), productCatalog,
+                validator(), new ObjectMapper(), batchSize, 100);
+    }
+
+    private static Validator validator() {
+        return VALIDATOR_FACTORY.getValidator();
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package com.artilheiro.store.service.webhook;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** LRU das notificações já vistas: x-request-id gravado e pagamentos processados em status final. */
+class WebhookDeduplicatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebhookDeduplicator deduplicator = new WebhookDeduplicator(meterRegistry, 3);
+
+    @Test
+    void onlyFinalPaymentStatusesShortCircuit() {
+        deduplicator.recordPaymentStatus("1", "pending");
+        deduplicator.recordPaymentStatus("2", null);
+        deduplicator.recordPaymentStatus("3", "approved");
+
+        assertThat(deduplicator.isKnownDuplicate("1", null)).isFalse();
+        assertThat(deduplicator.isKnownDuplicate("2", null)).isFalse();
+        assertThat(deduplicator.isKnownDuplicate("3", "nova-entrega")).isTrue();
+        assertThat(memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    void requestIdIsRememberedWhetherInsertedOrRejected() {
+        deduplicator.recordEnqueue("req-1", true);
+        deduplicator.recordEnqueue("req-2", false);
+        deduplicator.recordEnqueue(null, true);
+
+        assertThat(deduplicator.isKnownDuplicate("10", "req-1")).isTrue();
+        assertThat(deduplicator.isKnownDuplicate("11", "req-2")).isTrue();
+        assertThat(deduplicator.isKnownDuplicate("12", "req-3")).isFalse();
+        assertThat(counter("accepted")).isEqualTo(2);
+        assertThat(counter("database")).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        deduplicator.recordEnqueue("req-1", true);
+        deduplicator.recordEnqueue("req-2", true);
+        deduplicator.recordPaymentStatus("1", "approved");
+        // Consultar req-1 o torna o mais recente; req-2 passa a ser o mais antigo
+        assertThat(deduplicator.isKnownDuplicate("10", "req-1")).isTrue();
+
+        deduplicator.recordEnqueue("req-3", true);
+
+        assertThat(deduplicator.isKnownDuplicate("10", "req-2")).isFalse();
+        assertThat(deduplicator.isKnownDuplicate("10", "req-1")).isTrue();
+        assertThat(deduplicator.isKnownDuplicate("1", null)).isTrue();
+        assertThat(deduplicator.isKnownDuplicate("10", "req-3")).isTrue();
+    }
+
+    private double memoryHits() {
+        return counter("memory");
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("webhook.dedup").tag("result", result).counter().count();
+    }
+}
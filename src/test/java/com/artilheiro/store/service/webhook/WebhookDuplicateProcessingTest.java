@@ -0,0 +1,170 @@
+package com.artilheiro.store.service.webhook;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import com.artilheiro.store.dto.order.OrderRequest;
+import com.artilheiro.store.model.Order;
+import com.artilheiro.store.model.Product;
+import com.artilheiro.store.repository.OrderRepository;
+import com.artilheiro.store.repository.ProductRepository;
+import com.artilheiro.store.service.MercadoPagoService;
+import com.artilheiro.store.service.OrderService;
+import com.artilheiro.store.service.analytics.SalesRollupService;
+import com.mercadopago.resources.payment.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Notificações repetidas do mesmo pagamento aprovado: o pedido recebe o pagamento uma única vez, e depois do status
+ * final as notificações seguintes são descartadas na entrada (LRU desta instância ou, em outra instância, o banco).
+ */
+@Sql("classpath:db/migration/V16__add_webhook_inbox_dedup.sql")
+class WebhookDuplicateProcessingTest extends PostgresIntegrationTest {
+
+    @MockBean
+    private MercadoPagoService mercadoPagoService;
+
+    @SpyBean
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private WebhookInbox inbox;
+
+    @Autowired
+    private WebhookInboxWorker worker;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Test
+    void sameApprovedPaymentIsReceivedOnce() throws Exception {
+        String orderNumber = createOrder();
+        long paymentId = Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000_000_000L);
+        AtomicBoolean queriedInsideTransaction = new AtomicBoolean();
+        Payment approved = approvedPayment(paymentId, orderNumber);
+        when(mercadoPagoService.refreshPayment(paymentId)).thenAnswer(invocation -> {
+            queriedInsideTransaction.compareAndSet(false, TransactionSynchronizationManager.isActualTransactionActive());
+            return approved;
+        });
+        String payment = String.valueOf(paymentId);
+
+        assertThat(inbox.enqueue("payment", payment, "req-" + paymentId + "-1")).isTrue();
+        assertThat(inbox.enqueue("payment", payment, "req-" + paymentId + "-1")).as("reenvio da mesma entrega").isFalse();
+        assertThat(inbox.enqueue("payment", payment, "req-" + paymentId + "-2")).as("já na fila").isFalse();
+        processInbox(payment);
+
+        assertThat(orderRepository.findByOrderNumber(orderNumber).orElseThrow().getStatus())
+                .isEqualTo(Order.OrderStatus.RECEIVED);
+        assertThat(queriedInsideTransaction).as("Mercado Pago consultado sem transação aberta").isFalse();
+
+        // Status final lembrado em memória após o markDone
+        assertThat(inbox.enqueue("payment", payment, "req-" + paymentId + "-3")).isFalse();
+        // Outra instância, sem nada em memória: barrada pelo pagamento já processado em status final
+        WebhookInbox otherInstance = new WebhookInbox(namedJdbcTemplate,
+                new WebhookDeduplicator(new SimpleMeterRegistry(), 100));
+        assertThat(otherInstance.enqueue("payment", payment, "req-" + paymentId + "-4")).isFalse();
+        processInbox(payment);
+
+        verify(mercadoPagoService, times(1)).refreshPayment(paymentId);
+        verify(salesRollupService, times(1)).recordTransition(
+                argThat(order -> orderNumber.equals(order.getOrderNumber())), eq(Order.OrderStatus.PAYMENT_PENDING));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_inbox WHERE resource_id = ?",
+                Integer.class, payment)).isEqualTo(1);
+    }
+
+    /** Roda o worker até não restar notificação pendente do pagamento. */
+    private void processInbox(String paymentId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            worker.poll();
+            Integer pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM webhook_inbox WHERE resource_id = ? AND status = 'PENDING'",
+                    Integer.class, paymentId);
+            if (pending == 0) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Notificação do pagamento " + paymentId + " não foi processada");
+    }
+
+    private static Payment approvedPayment(long paymentId, String orderNumber) {
+        Payment payment = mock(Payment.class);
+        when(payment.getId()).thenReturn(paymentId);
+        when(payment.getStatus()).thenReturn("approved");
+        when(payment.getExternalReference()).thenReturn(orderNumber);
+        when(payment.getPaymentMethodId()).thenReturn("pix");
+        when(payment.getPaymentTypeId()).thenReturn("bank_transfer");
+        return payment;
+    }
+
+    private String createOrder() {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Camisa Webhook");
+        product.setTeam("Time");
+        product.setLiga("Liga");
+        product.setCategory("Clubes");
+        product.setPrice(new BigDecimal("99.90"));
+        product.setImages(List.of("https://example.com/webhook.png"));
+        product.setSizes(Map.of("M", 5));
+        product.setActive(true);
+        product.setCreatedAt(LocalDateTime.now());
+        productRepository.save(product);
+
+        OrderRequest.CustomerDto customer = new OrderRequest.CustomerDto();
+        customer.setName("Maria Silva");
+        customer.setEmail("maria@example.com");
+        customer.setCpf("123.456.789-09");
+        OrderRequest.AddressDto address = new OrderRequest.AddressDto();
+        address.setCep("01001000");
+        address.setRua("Praça da Sé");
+        address.setNumero("1");
+        address.setCidade("São Paulo");
+        address.setEstado("SP");
+        OrderRequest.ItemDto item = new OrderRequest.ItemDto();
+        item.setProductId(product.getId().toString());
+        item.setName(product.getName());
+        item.setSize("M");
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        OrderRequest request = new OrderRequest();
+        request.setCustomer(customer);
+        request.setAddress(address);
+        request.setItems(List.of(item));
+        request.setTotal(product.getPrice());
+        return orderService.create(request).getOrderId();
+    }
+}
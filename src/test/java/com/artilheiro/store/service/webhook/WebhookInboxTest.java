@@ -0,0 +1,166 @@
+package com.artilheiro.store.service.webhook;
+
+import com.artilheiro.store.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caixa de entrada dos webhooks no Postgres: deduplicação no INSERT (índices únicos da V16 e pagamentos em status
+ * final), claim com SKIP LOCKED e prazo (lease), e nova tentativa adiada.
+ */
+@Sql("classpath:db/migration/V16__add_webhook_inbox_dedup.sql")
+class WebhookInboxTest extends PostgresIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Autowired
+    private WebhookInbox inbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repeatedNotificationsAreNotInserted() {
+        String paymentId = newPaymentId();
+        String requestId = UUID.randomUUID().toString();
+
+        assertThat(inbox.enqueue("payment", paymentId, requestId)).isTrue();
+        assertThat(inbox.enqueue("payment", paymentId, requestId)).as("mesmo x-request-id").isFalse();
+        assertThat(inbox.enqueue("payment", paymentId, UUID.randomUUID().toString()))
+                .as("outra notificação do pagamento ainda aguardando o primeiro processamento").isFalse();
+        assertThat(rows(paymentId)).isEqualTo(1);
+
+        claimed(paymentId);
+        assertThat(inbox.enqueue("payment", paymentId, UUID.randomUUID().toString()))
+                .as("notificação chegando durante o processamento").isTrue();
+        assertThat(rows(paymentId)).isEqualTo(2);
+    }
+
+    @Test
+    void paymentAlreadyProcessedInFinalStatusIsNotInsertedAgain() {
+        String approved = newPaymentId();
+        String pending = newPaymentId();
+        for (String paymentId : List.of(approved, pending)) {
+            inbox.enqueue("payment", paymentId, null);
+        }
+        // Gravado por outra instância: o LRU desta não conhece o status, quem barra é o NOT EXISTS do INSERT
+        jdbcTemplate.update("UPDATE webhook_inbox SET status = 'DONE', payment_status = 'approved' WHERE resource_id = ?",
+                approved);
+        jdbcTemplate.update("UPDATE webhook_inbox SET status = 'DONE', payment_status = 'pending' WHERE resource_id = ?",
+                pending);
+
+        assertThat(inbox.enqueue("payment", approved, UUID.randomUUID().toString())).isFalse();
+        assertThat(inbox.enqueue("payment", pending, UUID.randomUUID().toString())).isTrue();
+        assertThat(rows(approved)).isEqualTo(1);
+        assertThat(rows(pending)).isEqualTo(2);
+    }
+
+    @Test
+    void claimedNotificationIsHiddenUntilTheLeaseExpires() throws InterruptedException {
+        String paymentId = newPaymentId();
+        inbox.enqueue("payment", paymentId, null);
+
+        WebhookInbox.Claimed first = claim(paymentId, Duration.ofMillis(500));
+        assertThat(first).isNotNull();
+        assertThat(first.attempts()).isEqualTo(1);
+        assertThat(claim(paymentId, LEASE)).as("reservada por outra instância").isNull();
+
+        // A instância caiu sem registrar o resultado: a notificação volta quando o prazo vence
+        Thread.sleep(700);
+        WebhookInbox.Claimed second = claim(paymentId, LEASE);
+        assertThat(second).isNotNull();
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(second.attempts()).isEqualTo(2);
+    }
+
+    @Test
+    void retryLaterPostponesTheNextAttempt() throws InterruptedException {
+        String paymentId = newPaymentId();
+        inbox.enqueue("payment", paymentId, null);
+        WebhookInbox.Claimed claimed = claimed(paymentId);
+
+        inbox.retryLater(claimed.id(), Duration.ofHours(1), "MPApiException: timeout");
+        assertThat(claim(paymentId, LEASE)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT last_error FROM webhook_inbox WHERE id = ?", String.class,
+                claimed.id())).isEqualTo("MPApiException: timeout");
+
+        inbox.retryLater(claimed.id(), Duration.ofMillis(200), "MPApiException: timeout");
+        Thread.sleep(300);
+        assertThat(claim(paymentId, LEASE)).extracting(WebhookInbox.Claimed::attempts).isEqualTo(2);
+
+        inbox.markDone(claimed.id(), paymentId, "pending");
+        assertThat(claim(paymentId, Duration.ZERO)).as("processada não volta à fila").isNull();
+    }
+
+    @Test
+    void concurrentClaimsNeverTakeTheSameNotification() throws Exception {
+        Set<String> paymentIds = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            String paymentId = newPaymentId();
+            paymentIds.add(paymentId);
+            inbox.enqueue("payment", paymentId, null);
+        }
+        int claimers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(claimers);
+        try {
+            List<Future<List<WebhookInbox.Claimed>>> results = new ArrayList<>();
+            Callable<List<WebhookInbox.Claimed>> claim = () -> {
+                start.await();
+                return inbox.claim(15, LEASE);
+            };
+            for (int i = 0; i < claimers; i++) {
+                results.add(executor.submit(claim));
+            }
+            start.countDown();
+            List<String> claimed = new ArrayList<>();
+            for (Future<List<WebhookInbox.Claimed>> result : results) {
+                result.get().stream().map(WebhookInbox.Claimed::resourceId).filter(paymentIds::contains)
+                        .forEach(claimed::add);
+            }
+            assertThat(claimed).doesNotHaveDuplicates();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Pega a notificação do pagamento (deve estar disponível). */
+    private WebhookInbox.Claimed claimed(String paymentId) {
+        WebhookInbox.Claimed claimed = claim(paymentId, LEASE);
+        assertThat(claimed).as("notificação disponível para %s", paymentId).isNotNull();
+        return claimed;
+    }
+
+    /** Pega as disponíveis e devolve a do pagamento (as demais, de outros testes, ficam reservadas pelo prazo). */
+    private WebhookInbox.Claimed claim(String paymentId, Duration lease) {
+        return inbox.claim(1000, lease).stream()
+                .filter(claimed -> claimed.resourceId().equals(paymentId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private int rows(String paymentId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_inbox WHERE resource_id = ?", Integer.class,
+                paymentId);
+    }
+
+    private static String newPaymentId() {
+        return String.valueOf(Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000_000_000L));
+    }
+}